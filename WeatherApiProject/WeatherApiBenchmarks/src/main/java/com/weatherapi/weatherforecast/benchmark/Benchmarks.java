@@ -0,0 +1,13 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+class Benchmarks {
+
+	private Benchmarks() {
+
+	}
+
+	static String ip2LocationDatabase() {
+
+		return System.getProperty("ip2location.db", "ip2locdb/IP2LOCATION-LITE-DB3.BIN");
+	}
+}
@@ -0,0 +1,58 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.weatherapi.weatherforecast.CommonUtility;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Client IP extraction, with and without a forwarding header. Logging goes
+ * through the configuration in logback.xml, so the numbers include the cost of
+ * building the log message even when it is filtered out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommonUtilityBenchmark {
+
+	private MockHttpServletRequest forwardedRequest;
+
+	private MockHttpServletRequest directRequest;
+
+	@Setup
+	public void setUp() {
+
+		forwardedRequest = new MockHttpServletRequest();
+		forwardedRequest.addHeader("X-FORWARED-FOR", "203.189.88.161");
+		forwardedRequest.setRemoteAddr("10.0.0.1");
+
+		directRequest = new MockHttpServletRequest();
+		directRequest.setRemoteAddr("203.189.88.161");
+	}
+
+	@Benchmark
+	public String getIPAddressForwarded() {
+
+		return CommonUtility.getIPAddress(forwardedRequest);
+	}
+
+	@Benchmark
+	public String getIPAddressDirect() {
+
+		return CommonUtility.getIPAddress(directRequest);
+	}
+}
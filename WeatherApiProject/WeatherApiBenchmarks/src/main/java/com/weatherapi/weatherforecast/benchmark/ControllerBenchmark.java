@@ -0,0 +1,200 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.weatherapi.weatherforecast.GeolocationException;
+import com.weatherapi.weatherforecast.GeolocationService;
+import com.weatherapi.weatherforecast.WeatherApiServiceApplication;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationService;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Full request paths through the Spring MVC stack of WeatherApiService, backed
+ * by an in-memory H2 database in MySQL mode and seeded with
+ * {@code locationCount} locations. The IP address path also needs the
+ * IP2Location BIN file (see {@link GeolocationBenchmark}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+	private static final String[] IP_ADDRESSES = { "203.189.88.161", "108.30.178.78", "8.8.8.8", "1.1.1.1" };
+
+	@Param({ "1000" })
+	private int locationCount;
+
+	private ConfigurableApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	private List<String> ipAddresses = new ArrayList<>();
+
+	private String[] eTags;
+
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		private int next;
+
+		int next(int bound) {
+			next = (next + 1) % bound;
+			return next;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		context = new SpringApplicationBuilder(WeatherApiServiceApplication.class).run(
+				"--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+				"--spring.datasource.username=sa", "--spring.datasource.password=",
+				"--spring.jpa.hibernate.ddl-auto=create-drop", "--spring.jpa.show-sql=false",
+				"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "--server.port=0",
+				"--weatherapi.geolocation.database=" + Benchmarks.ip2LocationDatabase());
+
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+		LocationService locationService = context.getBean(LocationService.class);
+		RealtimeWeatherService realtimeWeatherService = context.getBean(RealtimeWeatherService.class);
+
+		List<RealtimeWeather> realtimeWeathers = new ArrayList<>();
+
+		for (int i = 0; i < locationCount; i++) {
+
+			realtimeWeathers.add(realtimeWeather(locationService.add(location(code(i), "City " + i, "ID"))));
+		}
+
+		// Add one location per resolvable address so the IP path ends in a 200.
+		GeolocationService geolocationService = context.getBean(GeolocationService.class);
+
+		for (String ipAddress : IP_ADDRESSES) {
+
+			try {
+
+				Location fromIP = geolocationService.getLocation(ipAddress);
+
+				String code = "IP" + ipAddresses.size();
+
+				realtimeWeathers.add(realtimeWeather(
+						locationService.add(location(code, fromIP.getCityName(), fromIP.getCountryCode()))));
+
+				ipAddresses.add(ipAddress);
+
+			} catch (GeolocationException ex) {
+
+				// Unknown to the database in use: not part of the IP path benchmark.
+			}
+		}
+
+		realtimeWeatherService.updateAll(realtimeWeathers);
+
+		eTags = new String[locationCount];
+
+		for (int i = 0; i < locationCount; i++) {
+
+			eTags[i] = mockMvc.perform(get("/v1/realtime/" + code(i))).andReturn().getResponse().getHeader("ETag");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+
+		context.close();
+	}
+
+	@Benchmark
+	public MvcResult getRealtimeWeatherByLocationCode(Cursor cursor) throws Exception {
+
+		return mockMvc.perform(get("/v1/realtime/" + code(cursor.next(locationCount)))).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult getRealtimeWeatherByLocationCodeNotModified(Cursor cursor) throws Exception {
+
+		int index = cursor.next(locationCount);
+
+		return mockMvc.perform(get("/v1/realtime/" + code(index)).header("If-None-Match", eTags[index])).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult getRealtimeWeatherByIPAddress(Cursor cursor) throws Exception {
+
+		if (ipAddresses.isEmpty()) {
+
+			throw new IllegalStateException("No resolvable IP addresses: set -Dip2location.db to an IP2Location BIN file"
+					+ " (currently " + Path.of(Benchmarks.ip2LocationDatabase()).toAbsolutePath() + ", exists: "
+					+ Files.exists(Path.of(Benchmarks.ip2LocationDatabase())) + ")");
+		}
+
+		String ipAddress = ipAddresses.get(cursor.next(ipAddresses.size()));
+
+		return mockMvc.perform(get("/v1/realtime").header("X-FORWARED-FOR", ipAddress)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult listLocations() throws Exception {
+
+		return mockMvc.perform(get("/v1/locations").param("size", "100")).andReturn();
+	}
+
+	private static String code(int index) {
+
+		return String.format("LOC%06d", index);
+	}
+
+	private static Location location(String code, String cityName, String countryCode) {
+
+		Location location = new Location(cityName, "Region", "Country", countryCode);
+
+		location.setCode(code);
+		location.setEnabled(true);
+
+		return location;
+	}
+
+	private static RealtimeWeather realtimeWeather(Location location) {
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocationCode(location.getCode());
+		realtimeWeather.setTemperature(30);
+		realtimeWeather.setHumidity(70);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(10);
+		realtimeWeather.setStatus("Sunny");
+
+		return realtimeWeather;
+	}
+}
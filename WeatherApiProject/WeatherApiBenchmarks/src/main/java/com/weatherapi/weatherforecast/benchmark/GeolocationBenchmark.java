@@ -0,0 +1,122 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.ip2location.IP2Location;
+import com.ip2location.IPResult;
+import com.weatherapi.weatherforecast.GeolocationCache;
+import com.weatherapi.weatherforecast.GeolocationDatabase;
+import com.weatherapi.weatherforecast.GeolocationException;
+import com.weatherapi.weatherforecast.GeolocationResult;
+import com.weatherapi.weatherforecast.GeolocationService;
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the previous per-request IP2Location query with the in-memory
+ * {@link GeolocationDatabase}. Needs the IP2Location BIN file, by default at
+ * ip2locdb/IP2LOCATION-LITE-DB3.BIN (override with -Dip2location.db=...).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class GeolocationBenchmark {
+
+	private static final String[] IP_ADDRESSES = { "203.189.88.161", "108.30.178.78", "8.8.8.8", "1.1.1.1",
+			"114.124.200.17", "36.68.53.10", "182.253.163.5", "110.136.200.1" };
+
+	private IP2Location ip2Location;
+
+	private IP2Location ip2LocationMemoryMapped;
+
+	private GeolocationDatabase database;
+
+	private GeolocationService geolocationService;
+
+	private GeolocationService cachedGeolocationService;
+
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		private int next;
+
+		String nextIPAddress() {
+			return IP_ADDRESSES[next++ & (IP_ADDRESSES.length - 1)];
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+
+		String dbPath = Benchmarks.ip2LocationDatabase();
+
+		ip2Location = new IP2Location();
+		ip2Location.Open(dbPath);
+
+		ip2LocationMemoryMapped = new IP2Location();
+		ip2LocationMemoryMapped.Open(dbPath, true);
+
+		database = GeolocationDatabase.load(Path.of(dbPath));
+		geolocationService = new GeolocationService(database, new GeolocationCache(false, 0, 32, 128));
+		cachedGeolocationService = new GeolocationService(database, new GeolocationCache(true, 100000, 24, 48));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+
+		ip2Location.Close();
+		ip2LocationMemoryMapped.Close();
+	}
+
+	@Benchmark
+	public Location ip2LocationQuery(Cursor cursor) throws IOException {
+
+		// Equivalent of the previous GeolocationService.getLocation.
+		IPResult result = ip2Location.IPQuery(cursor.nextIPAddress());
+
+		return new Location(result.getCity(), result.getRegion(), result.getCountryLong(), result.getCountryShort());
+	}
+
+	@Benchmark
+	public IPResult ip2LocationMemoryMappedQuery(Cursor cursor) throws IOException {
+
+		return ip2LocationMemoryMapped.IPQuery(cursor.nextIPAddress());
+	}
+
+	@Benchmark
+	public GeolocationResult geolocationDatabaseLookup(Cursor cursor) {
+
+		return database.lookup(cursor.nextIPAddress());
+	}
+
+	@Benchmark
+	public Location geolocationServiceGetLocation(Cursor cursor) throws GeolocationException {
+
+		return geolocationService.getLocation(cursor.nextIPAddress());
+	}
+
+	@Benchmark
+	public Location cachedGeolocationServiceGetLocation(Cursor cursor) throws GeolocationException {
+
+		return cachedGeolocationService.getLocation(cursor.nextIPAddress());
+	}
+}
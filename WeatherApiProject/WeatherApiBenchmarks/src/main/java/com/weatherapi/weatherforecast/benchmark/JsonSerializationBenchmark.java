@@ -0,0 +1,94 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherMapper;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherResponseCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialization of the response bodies with an ObjectMapper configured the way
+ * Spring Boot configures the one used by the controllers, and the realtime
+ * response cache that skips it for unchanged readings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+	private ObjectWriter locationWriter;
+
+	private ObjectWriter realtimeWeatherWriter;
+
+	private Location location;
+
+	private RealtimeWeatherDTO realtimeWeatherDTO;
+
+	private RealtimeWeatherResponseCache responseCache;
+
+	@Setup
+	public void setUp() {
+
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+
+		locationWriter = builder.build().writerFor(Location.class);
+		realtimeWeatherWriter = builder.build().writerFor(RealtimeWeatherDTO.class);
+
+		location = new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID");
+		location.setCode("JKT_ID");
+		location.setEnabled(true);
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setTemperature(30);
+		realtimeWeather.setHumidity(70);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(10);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date());
+
+		realtimeWeatherDTO = RealtimeWeatherMapper.toDTO(realtimeWeather);
+
+		responseCache = new RealtimeWeatherResponseCache(builder.build(), 10_000, Duration.ofMinutes(5));
+	}
+
+	@Benchmark
+	public byte[] serializeLocation() throws JsonProcessingException {
+
+		return locationWriter.writeValueAsBytes(location);
+	}
+
+	@Benchmark
+	public byte[] serializeRealtimeWeatherDTO() throws JsonProcessingException {
+
+		return realtimeWeatherWriter.writeValueAsBytes(realtimeWeatherDTO);
+	}
+
+	@Benchmark
+	public byte[] cachedRealtimeWeatherResponse() {
+
+		return responseCache.get("JKT_ID", "\"JKT_ID-1\"", () -> realtimeWeatherDTO).getJson();
+	}
+}
@@ -0,0 +1,142 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import com.weatherapi.weatherforecast.SampledLogger;
+import com.weatherapi.weatherforecast.location.LocationNotFoundException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+
+/**
+ * Logging cost per realtime request, writing to a temporary file through a
+ * synchronous or an asynchronous appender configured like logback-spring.xml.
+ * The legacy benchmarks log the way the controllers did before: the client IP
+ * at INFO by string concatenation, and a not-found lookup at ERROR with its
+ * stack trace. The current ones log the client IP at DEBUG, which is filtered,
+ * and not-found lookups through a {@link SampledLogger}. The async scores are
+ * the request thread's share only: under sustained load the queue fills and
+ * events are discarded rather than written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+	private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+	@Param({ "sync", "async" })
+	private String appender;
+
+	private String ipAddress = "203.189.88.161";
+
+	private LocationNotFoundException notFound = new LocationNotFoundException(
+			"No location found with the given code: ABC_XYZ");
+
+	private LoggerContext loggerContext;
+
+	private Logger logger;
+
+	private SampledLogger sampledLogger;
+
+	private File logFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		logFile = File.createTempFile("logging-benchmark", ".log");
+
+		loggerContext = new LoggerContext();
+		loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(loggerContext);
+		encoder.setPattern(PATTERN);
+		encoder.start();
+
+		FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+		fileAppender.setContext(loggerContext);
+		fileAppender.setFile(logFile.getAbsolutePath());
+		fileAppender.setEncoder(encoder);
+		fileAppender.start();
+
+		Appender<ILoggingEvent> rootAppender = fileAppender;
+
+		if ("async".equals(appender)) {
+
+			AsyncAppender asyncAppender = new AsyncAppender();
+			asyncAppender.setContext(loggerContext);
+			asyncAppender.setQueueSize(8192);
+			asyncAppender.setNeverBlock(true);
+			asyncAppender.setIncludeCallerData(false);
+			asyncAppender.addAppender(fileAppender);
+			asyncAppender.start();
+
+			rootAppender = asyncAppender;
+		}
+
+		Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+		root.setLevel(ch.qos.logback.classic.Level.INFO);
+		root.addAppender(rootAppender);
+
+		logger = loggerContext.getLogger(LoggingBenchmark.class);
+		sampledLogger = new SampledLogger(logger, 100);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+
+		loggerContext.stop();
+		logFile.delete();
+	}
+
+	@Benchmark
+	public void legacyFoundRequest() {
+
+		logger.info("Client's IP Address: " + ipAddress);
+	}
+
+	@Benchmark
+	public void currentFoundRequest() {
+
+		logger.debug("Client's IP Address: {}", ipAddress);
+	}
+
+	@Benchmark
+	public void legacyNotFoundRequest() {
+
+		logger.info("Client's IP Address: " + ipAddress);
+		logger.error(notFound.getMessage(), notFound);
+	}
+
+	@Benchmark
+	public void currentNotFoundRequest() {
+
+		logger.debug("Client's IP Address: {}", ipAddress);
+		sampledLogger.warn(notFound);
+	}
+}
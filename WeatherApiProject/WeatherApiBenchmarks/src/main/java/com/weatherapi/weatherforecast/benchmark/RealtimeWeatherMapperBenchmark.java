@@ -0,0 +1,68 @@
+package com.weatherapi.weatherforecast.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-call cost of mapping a RealtimeWeather to its DTO with the previous
+ * ModelMapper configuration and with {@link RealtimeWeatherMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RealtimeWeatherMapperBenchmark {
+
+	private ModelMapper modelMapper;
+
+	private RealtimeWeather realtimeWeather;
+
+	@Setup
+	public void setUp() {
+
+		// Same configuration as the former WeatherApiServiceApplication bean.
+		modelMapper = new ModelMapper();
+		modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+		realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocation(new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID"));
+		realtimeWeather.setTemperature(30);
+		realtimeWeather.setHumidity(70);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(10);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date());
+	}
+
+	@Benchmark
+	public RealtimeWeatherDTO modelMapper() {
+
+		return modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+	}
+
+	@Benchmark
+	public RealtimeWeatherDTO realtimeWeatherMapper() {
+
+		return RealtimeWeatherMapper.toDTO(realtimeWeather);
+	}
+}
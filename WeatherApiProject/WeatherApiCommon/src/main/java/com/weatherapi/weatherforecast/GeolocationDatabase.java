@@ -0,0 +1,505 @@
+package com.weatherapi.weatherforecast;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of an IP2Location BIN database. The file is memory-mapped once
+ * and its ranges copied into sorted primitive arrays, so a lookup is a lock-free
+ * binary search with no I/O.
+ */
+public class GeolocationDatabase {
+
+	private static final String NOT_SUPPORTED = "Not_Supported";
+
+	private static final int[] COUNTRY_POSITION = { 0, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2,
+			2, 2, 2, 2, 2, 2 };
+
+	private static final int[] REGION_POSITION = { 0, 0, 0, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3,
+			3, 3, 3, 3, 3 };
+
+	private static final int[] CITY_POSITION = { 0, 0, 0, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 4,
+			4, 4, 4, 4 };
+
+	private static final int[] LATITUDE_POSITION = { 0, 0, 0, 0, 0, 5, 5, 0, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5,
+			5, 5, 5, 5, 5, 5 };
+
+	private static final int[] LONGITUDE_POSITION = { 0, 0, 0, 0, 0, 6, 6, 0, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6,
+			6, 6, 6, 6, 6, 6 };
+
+	private static final long MAX_IPV4 = 0xFFFFFFFFL;
+
+	private final long[] ipv4From;
+
+	private final int[] ipv4Records;
+
+	private final long[] ipv6FromHigh;
+
+	private final long[] ipv6FromLow;
+
+	private final int[] ipv6Records;
+
+	private final GeolocationResult[] records;
+
+	private GeolocationDatabase(MappedByteBuffer buffer) throws IOException {
+
+		int dbType = buffer.get(0) & 0xFF;
+		int dbColumn = buffer.get(1) & 0xFF;
+		int dbYear = buffer.get(2) & 0xFF;
+		int ipv4Count = buffer.getInt(5);
+		int ipv4BaseAddr = buffer.getInt(9);
+		int ipv6Count = buffer.getInt(13);
+		int ipv6BaseAddr = buffer.getInt(17);
+		int productCode = buffer.get(29) & 0xFF;
+
+		if ((productCode != 1 && dbYear >= 21) || (dbType == 'P' && dbColumn == 'K')
+				|| dbType >= COUNTRY_POSITION.length) {
+
+			throw new IOException("Incorrect IP2Location BIN file format");
+		}
+
+		RecordReader reader = new RecordReader(buffer, dbType);
+
+		this.ipv4From = new long[ipv4Count];
+		this.ipv4Records = new int[ipv4Count];
+
+		int ipv4ColumnSize = dbColumn << 2;
+
+		for (int row = 0; row < ipv4Count; row++) {
+
+			int rowOffset = ipv4BaseAddr - 1 + row * ipv4ColumnSize;
+
+			ipv4From[row] = buffer.getInt(rowOffset) & MAX_IPV4;
+			ipv4Records[row] = reader.read(rowOffset + 4);
+		}
+
+		this.ipv6FromHigh = new long[ipv6Count];
+		this.ipv6FromLow = new long[ipv6Count];
+		this.ipv6Records = new int[ipv6Count];
+
+		int ipv6ColumnSize = 16 + ((dbColumn - 1) << 2);
+
+		for (int row = 0; row < ipv6Count; row++) {
+
+			int rowOffset = ipv6BaseAddr - 1 + row * ipv6ColumnSize;
+
+			ipv6FromLow[row] = buffer.getLong(rowOffset);
+			ipv6FromHigh[row] = buffer.getLong(rowOffset + 8);
+			ipv6Records[row] = reader.read(rowOffset + 16);
+		}
+
+		this.records = reader.records.toArray(new GeolocationResult[0]);
+	}
+
+	public static GeolocationDatabase load(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			return new GeolocationDatabase(buffer);
+		}
+	}
+
+	public int getIPv4RangeCount() {
+		return Math.max(ipv4From.length - 1, 0);
+	}
+
+	public int getIPv6RangeCount() {
+		return Math.max(ipv6FromHigh.length - 1, 0);
+	}
+
+	public GeolocationResult lookup(String ipAddress) {
+
+		if (ipAddress == null) {
+
+			return GeolocationResult.EMPTY_IP_ADDRESS;
+		}
+
+		String ip = ipAddress.trim();
+
+		if (ip.isEmpty()) {
+
+			return GeolocationResult.EMPTY_IP_ADDRESS;
+		}
+
+		if (ip.indexOf(':') < 0) {
+
+			long ipv4 = parseIPv4(ip, 0, ip.length());
+
+			return ipv4 < 0 ? GeolocationResult.INVALID_IP_ADDRESS : lookupIPv4(ipv4);
+		}
+
+		long[] ipv6 = parseIPv6(ip);
+
+		if (ipv6 == null) {
+
+			return GeolocationResult.INVALID_IP_ADDRESS;
+		}
+
+		long high = ipv6[0];
+		long low = ipv6[1];
+
+		long embeddedIPv4 = embeddedIPv4(high, low);
+
+		if (embeddedIPv4 >= 0) {
+
+			return lookupIPv4(embeddedIPv4);
+		}
+
+		if (ipv6FromHigh.length == 0) {
+
+			return GeolocationResult.IPV6_NOT_SUPPORTED;
+		}
+
+		return lookupIPv6(high, low);
+	}
+
+	private GeolocationResult lookupIPv4(long ip) {
+
+		if (ip == MAX_IPV4) {
+
+			ip--;
+		}
+
+		int row = Arrays.binarySearch(ipv4From, ip);
+
+		if (row < 0) {
+
+			row = -row - 2;
+		}
+
+		if (row < 0 || row >= ipv4From.length - 1) {
+
+			return GeolocationResult.IP_ADDRESS_NOT_FOUND;
+		}
+
+		return records[ipv4Records[row]];
+	}
+
+	private GeolocationResult lookupIPv6(long high, long low) {
+
+		if (high == -1L && low == -1L) {
+
+			low--;
+		}
+
+		int row = -1;
+		int from = 0;
+		int to = ipv6FromHigh.length - 1;
+
+		while (from <= to) {
+
+			int mid = (from + to) >>> 1;
+
+			int compare = Long.compareUnsigned(ipv6FromHigh[mid], high);
+
+			if (compare == 0) {
+
+				compare = Long.compareUnsigned(ipv6FromLow[mid], low);
+			}
+
+			if (compare <= 0) {
+
+				row = mid;
+				from = mid + 1;
+
+			} else {
+
+				to = mid - 1;
+			}
+		}
+
+		if (row < 0 || row >= ipv6FromHigh.length - 1) {
+
+			return GeolocationResult.IP_ADDRESS_NOT_FOUND;
+		}
+
+		return records[ipv6Records[row]];
+	}
+
+	/**
+	 * Returns the IPv4 address embedded in an IPv4-mapped (::ffff:0:0/96), 6to4
+	 * (2002::/16) or Teredo (2001::/32) address, which resolve through the IPv4
+	 * ranges as IP2Location does, or -1 for any other IPv6 address.
+	 */
+	static long embeddedIPv4(long high, long low) {
+
+		if (high == 0 && (low >>> 32) == 0xFFFFL) {
+
+			return low & MAX_IPV4;
+		}
+
+		if ((high >>> 48) == 0x2002L) {
+
+			return (high >>> 16) & MAX_IPV4;
+		}
+
+		if ((high >>> 32) == 0x20010000L) {
+
+			return ~low & MAX_IPV4;
+		}
+
+		return -1;
+	}
+
+	static long parseIPv4(String ip, int from, int to) {
+
+		long address = 0;
+		int octets = 0;
+		int index = from;
+
+		while (index < to) {
+
+			int start = index;
+			int octet = 0;
+
+			while (index < to && index - start < 3) {
+
+				char c = ip.charAt(index);
+
+				if (c < '0' || c > '9') {
+
+					break;
+				}
+
+				octet = octet * 10 + (c - '0');
+				index++;
+			}
+
+			if (index == start || octet > 255) {
+
+				return -1;
+			}
+
+			address = (address << 8) | octet;
+			octets++;
+
+			if (index == to) {
+
+				break;
+			}
+
+			if (ip.charAt(index) != '.' || octets == 4) {
+
+				return -1;
+			}
+
+			index++;
+
+			if (index == to) {
+
+				return -1;
+			}
+		}
+
+		return octets == 4 ? address : -1;
+	}
+
+	static long[] parseIPv6(String ip) {
+
+		int length = ip.length();
+		int[] groups = new int[8];
+		int count = 0;
+		int compressAt = -1;
+		int index = 0;
+
+		if (ip.startsWith("::")) {
+
+			compressAt = 0;
+			index = 2;
+
+		} else if (ip.startsWith(":")) {
+
+			return null;
+		}
+
+		while (index < length) {
+
+			if (count == 8) {
+
+				return null;
+			}
+
+			int start = index;
+			int value = 0;
+
+			while (index < length && Character.digit(ip.charAt(index), 16) >= 0) {
+
+				value = (value << 4) | Character.digit(ip.charAt(index), 16);
+				index++;
+			}
+
+			if (index < length && ip.charAt(index) == '.') {
+
+				long ipv4 = parseIPv4(ip, start, length);
+
+				if (ipv4 < 0 || count > 6) {
+
+					return null;
+				}
+
+				groups[count++] = (int) (ipv4 >>> 16);
+				groups[count++] = (int) (ipv4 & 0xFFFF);
+				index = length;
+
+				break;
+			}
+
+			if (index == start || index - start > 4) {
+
+				return null;
+			}
+
+			groups[count++] = value;
+
+			if (index == length) {
+
+				break;
+			}
+
+			if (ip.charAt(index) != ':') {
+
+				return null;
+			}
+
+			index++;
+
+			if (index < length && ip.charAt(index) == ':') {
+
+				if (compressAt >= 0) {
+
+					return null;
+				}
+
+				compressAt = count;
+				index++;
+
+			} else if (index == length) {
+
+				return null;
+			}
+		}
+
+		if ((compressAt < 0 && count != 8) || (compressAt >= 0 && count > 7)) {
+
+			return null;
+		}
+
+		long[] address = new long[2];
+		int zeros = 8 - count;
+
+		for (int group = 0, source = 0; group < 8; group++) {
+
+			int value = 0;
+
+			if (compressAt < 0 || group < compressAt || group >= compressAt + zeros) {
+
+				value = groups[source++];
+			}
+
+			address[group >> 2] = (address[group >> 2] << 16) | value;
+		}
+
+		return address;
+	}
+
+	private static class RecordReader {
+
+		private final MappedByteBuffer buffer;
+
+		private final int countryOffset;
+
+		private final int regionOffset;
+
+		private final int cityOffset;
+
+		private final int latitudeOffset;
+
+		private final int longitudeOffset;
+
+		private final Map<Long, String> strings = new HashMap<>();
+
+		private final Map<RecordKey, Integer> recordIndexes = new HashMap<>();
+
+		private final List<GeolocationResult> records = new ArrayList<>();
+
+		RecordReader(MappedByteBuffer buffer, int dbType) {
+			this.buffer = buffer;
+			this.countryOffset = columnOffset(COUNTRY_POSITION[dbType]);
+			this.regionOffset = columnOffset(REGION_POSITION[dbType]);
+			this.cityOffset = columnOffset(CITY_POSITION[dbType]);
+			this.latitudeOffset = columnOffset(LATITUDE_POSITION[dbType]);
+			this.longitudeOffset = columnOffset(LONGITUDE_POSITION[dbType]);
+		}
+
+		int read(int columnsOffset) {
+
+			long country = pointer(columnsOffset, countryOffset);
+			long region = pointer(columnsOffset, regionOffset);
+			long city = pointer(columnsOffset, cityOffset);
+			float latitude = coordinate(columnsOffset, latitudeOffset);
+			float longitude = coordinate(columnsOffset, longitudeOffset);
+
+			RecordKey recordKey = new RecordKey(country, region, city, Float.floatToIntBits(latitude),
+					Float.floatToIntBits(longitude));
+
+			return recordIndexes.computeIfAbsent(recordKey, key -> {
+
+				records.add(new GeolocationResult(string(country, 0), string(country, 3), string(region, 0),
+						string(city, 0), latitude, longitude));
+
+				return records.size() - 1;
+			});
+		}
+
+		private long pointer(int columnsOffset, int columnOffset) {
+
+			return columnOffset < 0 ? -1 : buffer.getInt(columnsOffset + columnOffset) & MAX_IPV4;
+		}
+
+		// Coordinates are stored in the row itself rather than behind a pointer.
+		private float coordinate(int columnsOffset, int columnOffset) {
+
+			return columnOffset < 0 ? Float.NaN : buffer.getFloat(columnsOffset + columnOffset);
+		}
+
+		private String string(long pointer, int shift) {
+
+			if (pointer < 0) {
+
+				return NOT_SUPPORTED;
+			}
+
+			return strings.computeIfAbsent(pointer + shift, position -> {
+
+				int offset = position.intValue();
+				byte[] bytes = new byte[buffer.get(offset) & 0xFF];
+
+				buffer.get(offset + 1, bytes);
+
+				return new String(bytes, StandardCharsets.UTF_8);
+			});
+		}
+
+		private static int columnOffset(int position) {
+
+			return position == 0 ? -1 : (position - 2) << 2;
+		}
+	}
+
+	private record RecordKey(long country, long region, long city, int latitude, int longitude) {
+	}
+}
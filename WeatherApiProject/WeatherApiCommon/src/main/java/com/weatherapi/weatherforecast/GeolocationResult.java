@@ -0,0 +1,96 @@
+package com.weatherapi.weatherforecast;
+
+public class GeolocationResult {
+
+	public static final String OK = "OK";
+
+	static final GeolocationResult EMPTY_IP_ADDRESS = new GeolocationResult("EMPTY_IP_ADDRESS");
+	static final GeolocationResult INVALID_IP_ADDRESS = new GeolocationResult("INVALID_IP_ADDRESS");
+	static final GeolocationResult IPV6_NOT_SUPPORTED = new GeolocationResult("IPV6_NOT_SUPPORTED");
+	static final GeolocationResult IP_ADDRESS_NOT_FOUND = new GeolocationResult("IP_ADDRESS_NOT_FOUND");
+	static final GeolocationResult MISSING_FILE = new GeolocationResult("MISSING_FILE");
+
+	private final String status;
+
+	private final String countryShort;
+
+	private final String countryLong;
+
+	private final String region;
+
+	private final String city;
+
+	private final float latitude;
+
+	private final float longitude;
+
+	GeolocationResult(String countryShort, String countryLong, String region, String city) {
+		this(countryShort, countryLong, region, city, Float.NaN, Float.NaN);
+	}
+
+	GeolocationResult(String countryShort, String countryLong, String region, String city, float latitude,
+			float longitude) {
+		this.status = OK;
+		this.countryShort = countryShort;
+		this.countryLong = countryLong;
+		this.region = region;
+		this.city = city;
+		this.latitude = latitude;
+		this.longitude = longitude;
+	}
+
+	private GeolocationResult(String status) {
+		this.status = status;
+		this.countryShort = null;
+		this.countryLong = null;
+		this.region = null;
+		this.city = null;
+		this.latitude = Float.NaN;
+		this.longitude = Float.NaN;
+	}
+
+	public boolean isOK() {
+		return OK.equals(status);
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getCountryShort() {
+		return countryShort;
+	}
+
+	public String getCountryLong() {
+		return countryLong;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public String getCity() {
+		return city;
+	}
+
+	/**
+	 * Returns true when the database has coordinates for the address, which
+	 * needs a DB5 or higher BIN file.
+	 */
+	public boolean hasCoordinates() {
+		return !Float.isNaN(latitude) && !Float.isNaN(longitude);
+	}
+
+	public float getLatitude() {
+		return latitude;
+	}
+
+	public float getLongitude() {
+		return longitude;
+	}
+
+	@Override
+	public String toString() {
+		return status + " " + city + ", " + region + ", " + countryLong + " (" + countryShort + ")";
+	}
+}
@@ -5,19 +5,27 @@ import java.util.Objects;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.Length;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrimaryKeyJoinColumn;
 import jakarta.persistence.Table;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
 @Table(name = "locations")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "locations")
 public class Location {
 
 	@Id
@@ -49,12 +57,20 @@ public class Location {
 	@Length(min = 2, max = 2, message = "Country code must have 2 characters")
 	private String countryCode;
 
+	@DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+	@DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+	private Double latitude;
+
+	@DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+	@DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+	private Double longitude;
+
 	private boolean enabled;
 
 	@JsonIgnore
 	private boolean trashed;
 
-	@OneToOne(mappedBy = "location", cascade = CascadeType.ALL)
+	@OneToOne(mappedBy = "location", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@PrimaryKeyJoinColumn
 	@JsonIgnore
 	private RealtimeWeather realtimeWeather;
@@ -99,6 +115,22 @@ public class Location {
 		this.countryCode = countryCode;
 	}
 
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public void setLatitude(Double latitude) {
+		this.latitude = latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	public void setLongitude(Double longitude) {
+		this.longitude = longitude;
+	}
+
 	public boolean isEnabled() {
 		return enabled;
 	}
@@ -11,6 +11,7 @@ import org.hibernate.validator.constraints.Range;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.MapsId;
@@ -49,7 +50,7 @@ public class RealtimeWeather {
 	@JsonIgnore
 	private Date lastUpdatedDtm;
 
-	@OneToOne
+	@OneToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "location_code")
 	@MapsId
 	@JsonIgnore
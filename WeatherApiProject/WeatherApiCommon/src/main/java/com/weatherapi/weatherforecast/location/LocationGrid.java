@@ -0,0 +1,145 @@
+package com.weatherapi.weatherforecast.location;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index of location coordinates on a grid of one-degree cells. A
+ * nearest-location query only measures the locations in the cells that
+ * overlap the search radius, so its cost depends on the local density of
+ * locations rather than on their total number.
+ * <p>
+ * Reads are lock-free; writes must be serialized by the caller. Shared by the
+ * servlet and reactive APIs, so both resolve coordinates to the same location.
+ */
+public class LocationGrid {
+
+	public static final double EARTH_RADIUS_KM = 6371.0088;
+
+	private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+	private Map<Long, Set<Point>> cells = new ConcurrentHashMap<>();
+
+	private Map<String, Point> pointsByCode = new ConcurrentHashMap<>();
+
+	public void put(String code, double latitude, double longitude) {
+
+		remove(code);
+
+		Point point = new Point(code, latitude, longitude);
+
+		pointsByCode.put(code, point);
+		cells.computeIfAbsent(cell(row(latitude), column(longitude)), key -> ConcurrentHashMap.newKeySet()).add(point);
+	}
+
+	public void remove(String code) {
+
+		Point point = pointsByCode.remove(code);
+
+		if (point == null) {
+
+			return;
+		}
+
+		Long key = cell(row(point.latitude), column(point.longitude));
+		Set<Point> cell = cells.get(key);
+
+		cell.remove(point);
+
+		if (cell.isEmpty()) {
+
+			cells.remove(key, cell);
+		}
+	}
+
+	/**
+	 * Returns the code of the location closest to the given coordinates within
+	 * the given great-circle distance, or null if there is none.
+	 */
+	public String findNearest(double latitude, double longitude, double maxDistanceKm) {
+
+		double latitudeSpan = maxDistanceKm / KM_PER_DEGREE;
+
+		int fromRow = row(Math.max(latitude - latitudeSpan, -90));
+		int toRow = row(Math.min(latitude + latitudeSpan, 90));
+
+		// Degrees of longitude shrink towards the poles; search every column when the
+		// radius reaches a pole.
+		double cosLatitude = Math.cos(Math.toRadians(Math.max(Math.abs(latitude) + latitudeSpan, 0)));
+		boolean allColumns = Math.abs(latitude) + latitudeSpan >= 90 || cosLatitude <= 0;
+		double longitudeSpan = allColumns ? 180 : Math.min(latitudeSpan / cosLatitude, 180);
+
+		int fromColumn = allColumns ? -180 : (int) Math.floor(longitude - longitudeSpan);
+		int toColumn = allColumns ? 179 : (int) Math.floor(longitude + longitudeSpan);
+
+		String nearest = null;
+		double nearestDistance = maxDistanceKm;
+
+		for (int row = fromRow; row <= toRow; row++) {
+
+			for (int column = fromColumn; column <= toColumn; column++) {
+
+				Set<Point> cell = cells.get(cell(row, wrap(column)));
+
+				if (cell == null) {
+
+					continue;
+				}
+
+				for (Point point : cell) {
+
+					double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+
+					if (distance <= nearestDistance) {
+
+						nearest = point.code;
+						nearestDistance = distance;
+					}
+				}
+			}
+		}
+
+		return nearest;
+	}
+
+	public int size() {
+
+		return pointsByCode.size();
+	}
+
+	public static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+
+		double latitudeDelta = Math.toRadians(toLatitude - fromLatitude);
+		double longitudeDelta = Math.toRadians(toLongitude - fromLongitude);
+
+		double a = Math.pow(Math.sin(latitudeDelta / 2), 2) + Math.cos(Math.toRadians(fromLatitude))
+				* Math.cos(Math.toRadians(toLatitude)) * Math.pow(Math.sin(longitudeDelta / 2), 2);
+
+		return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static int row(double latitude) {
+
+		return Math.min((int) Math.floor(latitude), 89);
+	}
+
+	private static int column(double longitude) {
+
+		return wrap((int) Math.floor(longitude));
+	}
+
+	// Maps a column to [-180, 180), so searches wrap around the antimeridian.
+	private static int wrap(int column) {
+
+		return Math.floorMod(column + 180, 360) - 180;
+	}
+
+	private static Long cell(int row, int column) {
+
+		return ((long) row << 32) | (column & 0xFFFFFFFFL);
+	}
+
+	private record Point(String code, double latitude, double longitude) {
+	}
+}
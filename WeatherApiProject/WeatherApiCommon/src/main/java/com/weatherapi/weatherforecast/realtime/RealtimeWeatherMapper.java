@@ -0,0 +1,28 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+public class RealtimeWeatherMapper {
+
+	private RealtimeWeatherMapper() {
+
+	}
+
+	public static RealtimeWeatherDTO toDTO(RealtimeWeather realtimeWeather) {
+
+		RealtimeWeatherDTO dto = new RealtimeWeatherDTO();
+
+		Location location = realtimeWeather.getLocation();
+
+		dto.setLocation(location != null ? location.toString() : null);
+		dto.setTemperature(realtimeWeather.getTemperature());
+		dto.setHumidity(realtimeWeather.getHumidity());
+		dto.setPrecipitation(realtimeWeather.getPrecipitation());
+		dto.setWindSpeed(realtimeWeather.getWindSpeed());
+		dto.setStatus(realtimeWeather.getStatus());
+		dto.setLastUpdatedDtm(realtimeWeather.getLastUpdatedDtm());
+
+		return dto;
+	}
+}
@@ -0,0 +1,72 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import java.nio.file.Path;
+
+import com.weatherapi.weatherforecast.GeolocationDatabase;
+import com.weatherapi.weatherforecast.GeolocationException;
+import com.weatherapi.weatherforecast.GeolocationResult;
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves client addresses with the same in-memory IP2Location database as the
+ * servlet API. A lookup is a binary search over arrays, so it runs on the event
+ * loop without blocking it.
+ */
+@Service
+public class ReactiveGeolocationService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveGeolocationService.class);
+
+	private GeolocationDatabase database;
+
+	public ReactiveGeolocationService(
+			@Value("${weatherapi.geolocation.database:ip2locdb/IP2LOCATION-LITE-DB3.BIN}") String databasePath) {
+		super();
+
+		try {
+
+			database = GeolocationDatabase.load(Path.of(databasePath));
+
+			LOGGER.info("Loaded {} IPv4 and {} IPv6 ranges from {}", database.getIPv4RangeCount(),
+					database.getIPv6RangeCount(), databasePath);
+
+		} catch (Exception ex) {
+
+			LOGGER.error(ex.getMessage(), ex);
+		}
+	}
+
+	public Mono<Location> getLocation(String ipAddress) {
+
+		if (database == null) {
+
+			return Mono.error(new GeolocationException("Geolocation failed with status: MISSING_FILE"));
+		}
+
+		GeolocationResult result = database.lookup(ipAddress);
+
+		if (!result.isOK()) {
+
+			return Mono.error(new GeolocationException("Geolocation failed with status: " + result.getStatus()));
+		}
+
+		Location location = new Location(result.getCity(), result.getRegion(), result.getCountryLong(),
+				result.getCountryShort());
+
+		// Only DB5 and higher databases have coordinates.
+		if (result.hasCoordinates()) {
+
+			location.setLatitude((double) result.getLatitude());
+			location.setLongitude((double) result.getLongitude());
+		}
+
+		return Mono.just(location);
+	}
+}
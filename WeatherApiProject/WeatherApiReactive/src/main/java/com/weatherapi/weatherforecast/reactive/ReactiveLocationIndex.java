@@ -0,0 +1,83 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import java.time.Duration;
+
+import com.weatherapi.weatherforecast.location.LocationGrid;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The located locations in the same grid the servlet API searches, so both
+ * resolve coordinates to the same location. Locations are written through the
+ * servlet API, so the grid is reloaded every refresh interval instead of on
+ * each change; a failed reload keeps the previous grid.
+ */
+@Component
+public class ReactiveLocationIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveLocationIndex.class);
+
+	private RealtimeWeatherReactiveRepository repository;
+
+	private Duration refreshInterval;
+
+	private volatile LocationGrid grid = new LocationGrid();
+
+	private Disposable refresher;
+
+	public ReactiveLocationIndex(RealtimeWeatherReactiveRepository repository,
+			@Value("${weatherapi.location.nearest.refresh-interval:1m}") Duration refreshInterval) {
+		super();
+		this.repository = repository;
+		this.refreshInterval = refreshInterval;
+	}
+
+	@PostConstruct
+	public void start() {
+
+		refresher = Flux.interval(Duration.ZERO, refreshInterval).onBackpressureDrop()
+				.concatMap(tick -> reload().onErrorResume(ex -> {
+
+					LOGGER.warn("Failed to reload the location grid", ex);
+
+					return Mono.empty();
+				})).subscribe();
+	}
+
+	@PreDestroy
+	public void stop() {
+
+		refresher.dispose();
+	}
+
+	public Mono<Void> reload() {
+
+		return repository.findLocatedLocations().collect(LocationGrid::new,
+				(loaded, location) -> loaded.put(location.getCode(), location.getLatitude(), location.getLongitude()))
+				.doOnNext(loaded -> {
+
+					grid = loaded;
+
+					LOGGER.debug("Loaded {} located locations", loaded.size());
+
+				}).then();
+	}
+
+	/**
+	 * Returns the code of the nearest located location within the given distance,
+	 * or null when there is none.
+	 */
+	public String findNearestCode(double latitude, double longitude, double maxDistanceKm) {
+
+		return grid.findNearest(latitude, longitude, maxDistanceKm);
+	}
+}
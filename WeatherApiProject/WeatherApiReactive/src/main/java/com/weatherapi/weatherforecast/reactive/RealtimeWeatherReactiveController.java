@@ -0,0 +1,150 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+
+import com.weatherapi.weatherforecast.GeolocationException;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the servlet API's realtime weather reads, with
+ * the same paths, status codes, bodies and validators.
+ */
+@RestController
+@RequestMapping("/v1/realtime")
+public class RealtimeWeatherReactiveController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherReactiveController.class);
+
+	private static final String IP_ADDRESS_HEADER = "X-FORWARED-FOR";
+
+	private ReactiveGeolocationService geolocationService;
+
+	private RealtimeWeatherReactiveService realtimeWeatherService;
+
+	public RealtimeWeatherReactiveController(ReactiveGeolocationService geolocationService,
+			RealtimeWeatherReactiveService realtimeWeatherService) {
+		super();
+		this.geolocationService = geolocationService;
+		this.realtimeWeatherService = realtimeWeatherService;
+	}
+
+	@GetMapping
+	public Mono<ResponseEntity<RealtimeWeatherDTO>> getRealtimeWeatherByIPAddress(ServerWebExchange exchange) {
+
+		String ipAddress = getIPAddress(exchange.getRequest());
+
+		return geolocationService.getLocation(ipAddress).flatMap(realtimeWeatherService::getByLocation)
+				.map(realtimeWeather -> conditionalResponse(realtimeWeather, exchange, true))
+				.defaultIfEmpty(ResponseEntity.notFound().build())
+				.onErrorResume(GeolocationException.class, ex -> {
+
+					LOGGER.debug(ex.getMessage());
+
+					return Mono.just(ResponseEntity.badRequest().build());
+				});
+	}
+
+	@GetMapping(params = { "lat", "lon" })
+	public Mono<ResponseEntity<RealtimeWeatherDTO>> getRealtimeWeatherByCoordinates(
+			@RequestParam("lat") double latitude, @RequestParam("lon") double longitude,
+			ServerWebExchange exchange) {
+
+		// Written so that NaN fails too.
+		if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+
+		return realtimeWeatherService.getByCoordinates(latitude, longitude)
+				.map(realtimeWeather -> conditionalResponse(realtimeWeather, exchange, false))
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+	@GetMapping("/{locationCode}")
+	public Mono<ResponseEntity<RealtimeWeatherDTO>> getRealtimeWeatherByLocationCode(
+			@PathVariable("locationCode") String locationCode, ServerWebExchange exchange) {
+
+		return realtimeWeatherService.getByLocationCode(locationCode)
+				.map(realtimeWeather -> conditionalResponse(realtimeWeather, exchange, false))
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+	// A response that depends on the client's address is validated by its ETag
+	// only, and kept out of shared caches, as in the servlet API.
+	private static ResponseEntity<RealtimeWeatherDTO> conditionalResponse(RealtimeWeather realtimeWeather,
+			ServerWebExchange exchange, boolean perClient) {
+
+		boolean notModified;
+
+		if (perClient) {
+
+			notModified = exchange.checkNotModified(eTag(realtimeWeather));
+
+		} else {
+
+			Instant lastModified = realtimeWeather.getLastUpdatedDtm() != null
+					? realtimeWeather.getLastUpdatedDtm().toInstant()
+					: Instant.MIN;
+
+			notModified = exchange.checkNotModified(eTag(realtimeWeather), lastModified);
+		}
+
+		// checkNotModified has already set the ETag and Last-Modified response headers.
+		ResponseEntity.BodyBuilder builder = ResponseEntity
+				.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK);
+
+		if (perClient) {
+
+			builder.cacheControl(CacheControl.empty().cachePrivate()).varyBy(IP_ADDRESS_HEADER);
+		}
+
+		return notModified ? builder.build() : builder.body(RealtimeWeatherMapper.toDTO(realtimeWeather));
+	}
+
+	// Same format as the servlet API, so a tag from one is valid against the other.
+	private static String eTag(RealtimeWeather realtimeWeather) {
+
+		Location location = realtimeWeather.getLocation();
+
+		long lastUpdated = realtimeWeather.getLastUpdatedDtm() != null ? realtimeWeather.getLastUpdatedDtm().getTime()
+				: 0;
+
+		int label = location != null ? location.toString().hashCode() : 0;
+
+		return "\"" + realtimeWeather.getLocationCode() + "-" + Long.toHexString(lastUpdated) + "-"
+				+ Integer.toHexString(label) + "\"";
+	}
+
+	private static String getIPAddress(ServerHttpRequest request) {
+
+		String ip = request.getHeaders().getFirst(IP_ADDRESS_HEADER);
+
+		if (ip == null || ip.isEmpty()) {
+
+			InetSocketAddress remoteAddress = request.getRemoteAddress();
+
+			ip = remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "";
+		}
+
+		return ip;
+	}
+}
@@ -0,0 +1,104 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import io.r2dbc.spi.Readable;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads realtime weather joined with its location in one statement, and the
+ * coordinates of the located locations, over the same schema as the servlet API.
+ */
+@Repository
+public class RealtimeWeatherReactiveRepository {
+
+	private static final String SELECT_SQL = "SELECT r.location_code, r.temperature, r.humidity, r.precipitation,"
+			+ " r.wind_speed, r.status, r.last_updated_dtm, l.city_name, l.region_name, l.country_name,"
+			+ " l.country_code, l.enabled FROM realtime_weather r JOIN locations l ON l.code = r.location_code"
+			+ " WHERE l.trashed = false";
+
+	private static final String FIND_BY_LOCATION_CODE_SQL = SELECT_SQL + " AND r.location_code = :code";
+
+	private static final String FIND_BY_COUNTRY_CODE_AND_CITY_SQL = SELECT_SQL
+			+ " AND l.country_code = :countryCode AND l.city_name = :city";
+
+	private static final String FIND_LOCATED_LOCATIONS_SQL = "SELECT code, latitude, longitude FROM locations"
+			+ " WHERE trashed = false AND latitude IS NOT NULL AND longitude IS NOT NULL";
+
+	private DatabaseClient databaseClient;
+
+	public RealtimeWeatherReactiveRepository(DatabaseClient databaseClient) {
+		super();
+		this.databaseClient = databaseClient;
+	}
+
+	public Mono<RealtimeWeather> findByLocationCode(String locationCode) {
+
+		return databaseClient.sql(FIND_BY_LOCATION_CODE_SQL).bind("code", locationCode)
+				.map(RealtimeWeatherReactiveRepository::toRealtimeWeather).one();
+	}
+
+	public Mono<RealtimeWeather> findByCountryCodeAndCity(String countryCode, String city) {
+
+		return databaseClient.sql(FIND_BY_COUNTRY_CODE_AND_CITY_SQL).bind("countryCode", countryCode)
+				.bind("city", city).map(RealtimeWeatherReactiveRepository::toRealtimeWeather).one();
+	}
+
+	/**
+	 * Returns the code and coordinates of every untrashed location that has
+	 * coordinates.
+	 */
+	public Flux<Location> findLocatedLocations() {
+
+		return databaseClient.sql(FIND_LOCATED_LOCATIONS_SQL).map(row -> {
+
+			Location location = new Location();
+
+			location.setCode(row.get("code", String.class));
+			location.setLatitude(row.get("latitude", Double.class));
+			location.setLongitude(row.get("longitude", Double.class));
+
+			return location;
+
+		}).all();
+	}
+
+	private static RealtimeWeather toRealtimeWeather(Readable row) {
+
+		Location location = new Location(row.get("city_name", String.class), row.get("region_name", String.class),
+				row.get("country_name", String.class), row.get("country_code", String.class));
+
+		location.setCode(row.get("location_code", String.class));
+		location.setEnabled(Boolean.TRUE.equals(row.get("enabled", Boolean.class)));
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocationCode(location.getCode());
+		realtimeWeather.setTemperature(row.get("temperature", Integer.class));
+		realtimeWeather.setHumidity(row.get("humidity", Integer.class));
+		realtimeWeather.setPrecipitation(row.get("precipitation", Integer.class));
+		realtimeWeather.setWindSpeed(row.get("wind_speed", Integer.class));
+		realtimeWeather.setStatus(row.get("status", String.class));
+		realtimeWeather.setLocation(location);
+
+		LocalDateTime lastUpdated = row.get("last_updated_dtm", LocalDateTime.class);
+
+		// Hibernate reads DATETIME in the JVM's zone too, so both APIs return the same instant.
+		if (lastUpdated != null) {
+
+			realtimeWeather.setLastUpdatedDtm(Date.from(lastUpdated.atZone(ZoneId.systemDefault()).toInstant()));
+		}
+
+		return realtimeWeather;
+	}
+}
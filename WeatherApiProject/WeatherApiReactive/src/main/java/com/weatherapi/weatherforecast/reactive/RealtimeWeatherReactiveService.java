@@ -0,0 +1,100 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves realtime weather from short-lived asynchronous caches in front of the
+ * reactive repository. Concurrent misses for one key share a single query, and
+ * an empty result is not cached. Updates are written through the servlet API,
+ * which cannot evict these entries, so they are only refreshed by expiry: a
+ * reading acknowledged by the servlet API may be served stale here for up to
+ * the expire-after-write interval. That bound is accepted in exchange for
+ * absorbing repeated reads of hot locations.
+ */
+@Service
+public class RealtimeWeatherReactiveService implements MeterBinder {
+
+	private RealtimeWeatherReactiveRepository repository;
+
+	private AsyncCache<String, RealtimeWeather> byLocationCode;
+
+	private AsyncCache<String, RealtimeWeather> byCountryCodeAndCity;
+
+	private ReactiveLocationIndex locationIndex;
+
+	private double nearestMaxDistanceKm;
+
+	public RealtimeWeatherReactiveService(RealtimeWeatherReactiveRepository repository,
+			ReactiveLocationIndex locationIndex,
+			@Value("${weatherapi.realtime.cache.maximum-size:10000}") long maximumSize,
+			@Value("${weatherapi.realtime.cache.expire-after-write:1s}") Duration expireAfterWrite,
+			@Value("${weatherapi.location.nearest.max-distance-km:100}") double nearestMaxDistanceKm) {
+		super();
+		this.repository = repository;
+		this.locationIndex = locationIndex;
+		this.nearestMaxDistanceKm = nearestMaxDistanceKm;
+		this.byLocationCode = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite)
+				.recordStats().buildAsync();
+		this.byCountryCodeAndCity = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite)
+				.recordStats().buildAsync();
+	}
+
+	/**
+	 * Resolves a geolocated client to the nearest location when its coordinates
+	 * are known, and otherwise, or when no location is near enough, to the
+	 * location with the same country code and city name, as the servlet API does.
+	 */
+	public Mono<RealtimeWeather> getByLocation(Location location) {
+
+		if (location.getLatitude() != null && location.getLongitude() != null) {
+
+			String locationCode = locationIndex.findNearestCode(location.getLatitude(), location.getLongitude(),
+					nearestMaxDistanceKm);
+
+			if (locationCode != null) {
+
+				return getByLocationCode(locationCode);
+			}
+		}
+
+		String countryCode = location.getCountryCode();
+		String city = location.getCityName();
+
+		return Mono.fromFuture(byCountryCodeAndCity.get(countryCode + '/' + city,
+				(key, executor) -> repository.findByCountryCodeAndCity(countryCode, city).toFuture()));
+	}
+
+	public Mono<RealtimeWeather> getByCoordinates(double latitude, double longitude) {
+
+		String locationCode = locationIndex.findNearestCode(latitude, longitude, nearestMaxDistanceKm);
+
+		return locationCode != null ? getByLocationCode(locationCode) : Mono.empty();
+	}
+
+	public Mono<RealtimeWeather> getByLocationCode(String locationCode) {
+
+		return Mono.fromFuture(
+				byLocationCode.get(locationCode, (key, executor) -> repository.findByLocationCode(key).toFuture()));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		CaffeineCacheMetrics.monitor(registry, byLocationCode, "realtime_weather");
+		CaffeineCacheMetrics.monitor(registry, byCountryCodeAndCity, "realtime_weather_by_city");
+	}
+}
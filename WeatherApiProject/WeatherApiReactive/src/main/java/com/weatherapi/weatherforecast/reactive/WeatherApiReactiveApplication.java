@@ -0,0 +1,13 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class WeatherApiReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(WeatherApiReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.weatherapi.weatherforecast.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.weatherapi.weatherforecast.GeolocationException;
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the reactive realtime API against an in-memory H2 database in MySQL
+ * mode, created and seeded by the test's schema.sql and data.sql.
+ */
+@SpringBootTest(properties = { "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.r2dbc.username=sa", "spring.r2dbc.password=", "spring.sql.init.mode=always",
+		"weatherapi.geolocation.database=ip2locdb/missing.BIN" })
+@AutoConfigureWebTestClient
+public class RealtimeWeatherReactiveControllerTests {
+
+	private static final String END_POINT_PATH = "/v1/realtime";
+
+	@Autowired
+	WebTestClient webTestClient;
+
+	@MockBean
+	ReactiveGeolocationService geolocationService;
+
+	@Autowired
+	ReactiveLocationIndex locationIndex;
+
+	@Test
+	public void testGetByLocationCodeShouldReturn200OK() {
+
+		webTestClient.get().uri(END_POINT_PATH + "/JKT_ID").exchange().expectStatus().isOk().expectHeader()
+				.exists("ETag").expectHeader().exists("Last-Modified").expectBody().jsonPath("$.location")
+				.isEqualTo("Jakarta, DKI Jakarta, Indonesia").jsonPath("$.temperature").isEqualTo(31)
+				.jsonPath("$.wind_speed").isEqualTo(10).jsonPath("$.status").isEqualTo("Sunny")
+				.jsonPath("$.last_updateddtm").exists();
+	}
+
+	@Test
+	public void testGetByLocationCodeShouldReturn304NotModified() {
+
+		String eTag = webTestClient.get().uri(END_POINT_PATH + "/JKT_ID").exchange().expectStatus().isOk()
+				.returnResult(String.class).getResponseHeaders().getETag();
+
+		assertThat(eTag).startsWith("\"JKT_ID-");
+
+		webTestClient.get().uri(END_POINT_PATH + "/JKT_ID").header("If-None-Match", eTag).exchange().expectStatus()
+				.isNotModified().expectBody().isEmpty();
+	}
+
+	@Test
+	public void testGetByLocationCodeShouldReturn404NotFound() {
+
+		webTestClient.get().uri(END_POINT_PATH + "/ABC_XYZ").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testGetTrashedLocationShouldReturn404NotFound() {
+
+		webTestClient.get().uri(END_POINT_PATH + "/BDG_ID").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testGetByIPAddressShouldReturn400BadRequest() {
+
+		Mockito.when(geolocationService.getLocation("103.48.198.141"))
+				.thenReturn(Mono.error(new GeolocationException("Geolocation failed with status: MISSING_FILE")));
+
+		webTestClient.get().uri(END_POINT_PATH).header("X-FORWARED-FOR", "103.48.198.141").exchange().expectStatus()
+				.isBadRequest();
+	}
+
+	@Test
+	public void testGetByIPAddressShouldPreferNearestLocation() {
+
+		locationIndex.reload().block();
+
+		Location location = new Location("Bogor", "West Java", "Indonesia", "ID");
+		location.setLatitude(-6.5971);
+		location.setLongitude(106.806);
+
+		Mockito.when(geolocationService.getLocation("182.253.0.1")).thenReturn(Mono.just(location));
+
+		webTestClient.get().uri(END_POINT_PATH).header("X-FORWARED-FOR", "182.253.0.1").exchange().expectStatus()
+				.isOk().expectBody().jsonPath("$.location").isEqualTo("Jakarta, DKI Jakarta, Indonesia");
+	}
+
+	@Test
+	public void testGetByCoordinatesShouldReturnNearestLocation() {
+
+		locationIndex.reload().block();
+
+		// Bandung is nearer, but trashed.
+		webTestClient.get().uri(END_POINT_PATH + "?lat=-6.6&lon=107.3").exchange().expectStatus().isOk()
+				.expectHeader().exists("Last-Modified").expectBody().jsonPath("$.location")
+				.isEqualTo("Jakarta, DKI Jakarta, Indonesia");
+	}
+
+	@Test
+	public void testGetByCoordinatesShouldReturn404NotFound() {
+
+		locationIndex.reload().block();
+
+		webTestClient.get().uri(END_POINT_PATH + "?lat=48.8566&lon=2.3522").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testGetByCoordinatesShouldReturn400BadRequest() {
+
+		webTestClient.get().uri(END_POINT_PATH + "?lat=91&lon=106.8").exchange().expectStatus().isBadRequest();
+		webTestClient.get().uri(END_POINT_PATH + "?lat=NaN&lon=106.8").exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void testGetByIPAddressShouldBeValidatedByETagOnly() {
+
+		Mockito.when(geolocationService.getLocation("203.189.88.161"))
+				.thenReturn(Mono.just(new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID")));
+
+		String eTag = webTestClient.get().uri(END_POINT_PATH).header("X-FORWARED-FOR", "203.189.88.161").exchange()
+				.expectStatus().isOk().expectHeader().doesNotExist("Last-Modified").expectHeader()
+				.valueEquals("Cache-Control", "private").expectHeader().valueEquals("Vary", "X-FORWARED-FOR")
+				.returnResult(String.class).getResponseHeaders().getETag();
+
+		assertThat(eTag).startsWith("\"JKT_ID-");
+
+		webTestClient.get().uri(END_POINT_PATH).header("X-FORWARED-FOR", "203.189.88.161")
+				.header("If-Modified-Since", "Thu, 01 Jan 2099 00:00:00 GMT").exchange().expectStatus().isOk();
+
+		webTestClient.get().uri(END_POINT_PATH).header("X-FORWARED-FOR", "203.189.88.161")
+				.header("If-None-Match", eTag).exchange().expectStatus().isNotModified();
+	}
+}
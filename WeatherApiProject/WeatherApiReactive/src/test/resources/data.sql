@@ -0,0 +1,5 @@
+INSERT INTO locations VALUES ('JKT_ID', 'Jakarta', 'DKI Jakarta', 'Indonesia', 'ID', true, false, -6.2088, 106.8456);
+INSERT INTO locations VALUES ('BDG_ID', 'Bandung', 'West Java', 'Indonesia', 'ID', true, true, -6.9175, 107.6191);
+
+INSERT INTO realtime_weather VALUES ('JKT_ID', 31, 70, 20, 10, 'Sunny', '2024-05-01 10:00:00');
+INSERT INTO realtime_weather VALUES ('BDG_ID', 25, 80, 60, 5, 'Rainy', '2024-05-01 10:00:00');
@@ -0,0 +1,26 @@
+-- The servlet API's Flyway migrations (V1 and V3), which own the schema.
+
+CREATE TABLE locations (
+	code VARCHAR(12) NOT NULL,
+	city_name VARCHAR(128) NOT NULL,
+	region_name VARCHAR(128),
+	country_name VARCHAR(64) NOT NULL,
+	country_code VARCHAR(2) NOT NULL,
+	enabled BIT NOT NULL,
+	trashed BIT NOT NULL,
+	latitude DOUBLE,
+	longitude DOUBLE,
+	PRIMARY KEY (code)
+);
+
+CREATE TABLE realtime_weather (
+	location_code VARCHAR(12) NOT NULL,
+	temperature INTEGER NOT NULL,
+	humidity INTEGER NOT NULL,
+	precipitation INTEGER NOT NULL,
+	wind_speed INTEGER NOT NULL,
+	status VARCHAR(50),
+	last_updated_dtm DATETIME(6),
+	PRIMARY KEY (location_code),
+	CONSTRAINT fk_realtime_weather_location FOREIGN KEY (location_code) REFERENCES locations (code)
+);
@@ -0,0 +1,52 @@
+package com.weatherapi.weatherforecast;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts expected request failures in weatherapi.outcomes, tagged by outcome.
+ */
+@Component
+public class ApiOutcomes implements MeterBinder {
+
+	public static final String BULKHEAD_REJECTED = "bulkhead_rejected";
+
+	public static final String GEOLOCATION_FAILURE = "geolocation_failure";
+
+	public static final String LOCATION_NOT_FOUND = "location_not_found";
+
+	public static final String VALIDATION_FAILURE = "validation_failure";
+
+	private Map<String, LongAdder> counts = Map.of(BULKHEAD_REJECTED, new LongAdder(), GEOLOCATION_FAILURE,
+			new LongAdder(), LOCATION_NOT_FOUND, new LongAdder(), VALIDATION_FAILURE, new LongAdder());
+
+	public void record(String outcome) {
+
+		record(outcome, 1);
+	}
+
+	public void record(String outcome, int count) {
+
+		LongAdder adder = counts.get(outcome);
+
+		if (adder == null) {
+
+			throw new IllegalArgumentException("Unknown outcome: " + outcome);
+		}
+
+		adder.add(count);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		counts.forEach((outcome, adder) -> FunctionCounter.builder("weatherapi.outcomes", adder, LongAdder::sum)
+				.tag("outcome", outcome).register(registry));
+	}
+}
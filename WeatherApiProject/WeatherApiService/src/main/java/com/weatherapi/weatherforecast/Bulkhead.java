@@ -0,0 +1,119 @@
+package com.weatherapi.weatherforecast;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caps the requests in flight for one group of endpoints. A caller waits up to
+ * the maximum wait for a permit and is rejected after that, so a burst on one
+ * group queues in front of its own bulkhead instead of in the connection pool
+ * shared with the others.
+ */
+public class Bulkhead implements MeterBinder {
+
+	private String name;
+
+	private int maxConcurrent;
+
+	private long maxWaitNanos;
+
+	private Semaphore permits;
+
+	private LongAdder acquired = new LongAdder();
+
+	private LongAdder waitNanos = new LongAdder();
+
+	private LongAdder rejected = new LongAdder();
+
+	public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+		super();
+
+		if (maxConcurrent < 1) {
+
+			throw new IllegalArgumentException("Bulkhead " + name + " must allow at least one request");
+		}
+
+		this.name = name;
+		this.maxConcurrent = maxConcurrent;
+		this.maxWaitNanos = maxWait.toNanos();
+		this.permits = new Semaphore(maxConcurrent, true);
+	}
+
+	public boolean tryAcquire() {
+
+		if (permits.tryAcquire()) {
+
+			acquired.increment();
+
+			return true;
+		}
+
+		long start = System.nanoTime();
+
+		boolean acquiredPermit;
+
+		try {
+
+			acquiredPermit = maxWaitNanos > 0 && permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+
+		} catch (InterruptedException ex) {
+
+			Thread.currentThread().interrupt();
+
+			acquiredPermit = false;
+		}
+
+		waitNanos.add(System.nanoTime() - start);
+
+		if (acquiredPermit) {
+
+			acquired.increment();
+
+		} else {
+
+			rejected.increment();
+		}
+
+		return acquiredPermit;
+	}
+
+	public void release() {
+
+		permits.release();
+	}
+
+	public String getName() {
+
+		return name;
+	}
+
+	public int getInFlight() {
+
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		Gauge.builder("weatherapi.bulkhead.in_flight", this, Bulkhead::getInFlight).tag("bulkhead", name)
+				.register(registry);
+
+		Gauge.builder("weatherapi.bulkhead.limit", this, bulkhead -> bulkhead.maxConcurrent).tag("bulkhead", name)
+				.register(registry);
+
+		FunctionTimer.builder("weatherapi.bulkhead.wait", this, bulkhead -> bulkhead.acquired.sum(),
+				bulkhead -> bulkhead.waitNanos.sum(), TimeUnit.NANOSECONDS).tag("bulkhead", name)
+				.register(registry);
+
+		FunctionCounter.builder("weatherapi.bulkhead.rejected", rejected, LongAdder::sum).tag("bulkhead", name)
+				.register(registry);
+	}
+}
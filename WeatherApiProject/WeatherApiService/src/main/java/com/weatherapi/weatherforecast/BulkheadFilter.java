@@ -0,0 +1,153 @@
+package com.weatherapi.weatherforecast;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runs the location CRUD endpoints and the realtime endpoints behind separate
+ * bulkheads, so bulk location listing cannot take the connections the
+ * realtime reads need. The realtime event stream is left out: it holds no
+ * connection and has its own subscriber limit.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter implements MeterBinder {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkheadFilter.class);
+
+	private Bulkhead locationBulkhead;
+
+	private Bulkhead realtimeBulkhead;
+
+	private ApiOutcomes apiOutcomes;
+
+	public BulkheadFilter(ApiOutcomes apiOutcomes,
+			@Value("${weatherapi.bulkhead.location.max-concurrent:8}") int locationMaxConcurrent,
+			@Value("${weatherapi.bulkhead.location.max-wait:100ms}") Duration locationMaxWait,
+			@Value("${weatherapi.bulkhead.realtime.max-concurrent:16}") int realtimeMaxConcurrent,
+			@Value("${weatherapi.bulkhead.realtime.max-wait:50ms}") Duration realtimeMaxWait) {
+		super();
+		this.locationBulkhead = new Bulkhead("location", locationMaxConcurrent, locationMaxWait);
+		this.realtimeBulkhead = new Bulkhead("realtime", realtimeMaxConcurrent, realtimeMaxWait);
+		this.apiOutcomes = apiOutcomes;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+
+		Bulkhead bulkhead = bulkheadFor(path);
+
+		if (bulkhead == null) {
+
+			filterChain.doFilter(request, response);
+
+			return;
+		}
+
+		if (!bulkhead.tryAcquire()) {
+
+			apiOutcomes.record(ApiOutcomes.BULKHEAD_REJECTED);
+
+			LOGGER.debug("Bulkhead {} is full, rejecting {} {}", bulkhead.getName(), request.getMethod(), path);
+
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+
+			return;
+		}
+
+		try {
+
+			filterChain.doFilter(request, response);
+
+		} finally {
+
+			if (request.isAsyncStarted()) {
+
+				// Streamed responses keep their permit until the body is written.
+				request.getAsyncContext().addListener(new ReleasingListener(bulkhead));
+
+			} else {
+
+				bulkhead.release();
+			}
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		locationBulkhead.bindTo(registry);
+		realtimeBulkhead.bindTo(registry);
+	}
+
+	private Bulkhead bulkheadFor(String path) {
+
+		if (path.startsWith("/v1/locations")) {
+
+			return locationBulkhead;
+		}
+
+		if (path.startsWith("/v1/realtime/stream")) {
+
+			return null;
+		}
+
+		if (path.startsWith("/v1/realtime")) {
+
+			return realtimeBulkhead;
+		}
+
+		return null;
+	}
+
+	private static class ReleasingListener implements AsyncListener {
+
+		private Bulkhead bulkhead;
+
+		ReleasingListener(Bulkhead bulkhead) {
+			this.bulkhead = bulkhead;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+
+			bulkhead.release();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+
+		}
+	}
+}
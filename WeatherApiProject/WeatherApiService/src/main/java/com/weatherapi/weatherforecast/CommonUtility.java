@@ -9,16 +9,18 @@ public class CommonUtility {
 
 	private static Logger LOGGER = LoggerFactory.getLogger(CommonUtility.class);
 
+	public static final String IP_ADDRESS_HEADER = "X-FORWARED-FOR";
+
 	public static String getIPAddress(HttpServletRequest request) {
 
-		String ip = request.getHeader("X-FORWARED-FOR");
+		String ip = request.getHeader(IP_ADDRESS_HEADER);
 
 		if (ip == null || ip.isEmpty()) {
 
 			ip = request.getRemoteAddr();
 		}
 
-		LOGGER.info("Client's IP Address: " + ip);
+		LOGGER.debug("Client's IP Address: {}", ip);
 
 		return ip;
 	}
@@ -0,0 +1,131 @@
+package com.weatherapi.weatherforecast;
+
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches geolocation results, including failed statuses, keyed by the IP
+ * address masked to a configurable prefix. With the default /32 and /128
+ * prefixes every address is cached on its own. IPv6 addresses that embed an
+ * IPv4 address are looked up by it, so they are keyed like that IPv4 address.
+ */
+@Component
+public class GeolocationCache implements MeterBinder {
+
+	private boolean enabled;
+
+	private int ipv4PrefixLength;
+
+	private int ipv6PrefixLength;
+
+	private Cache<Object, GeolocationResult> cache;
+
+	public GeolocationCache(@Value("${weatherapi.geolocation.cache.enabled:true}") boolean enabled,
+			@Value("${weatherapi.geolocation.cache.maximum-size:100000}") long maximumSize,
+			@Value("${weatherapi.geolocation.cache.ipv4-prefix-length:32}") int ipv4PrefixLength,
+			@Value("${weatherapi.geolocation.cache.ipv6-prefix-length:128}") int ipv6PrefixLength) {
+		super();
+
+		if (ipv4PrefixLength < 0 || ipv4PrefixLength > 32 || ipv6PrefixLength < 0 || ipv6PrefixLength > 128) {
+
+			throw new IllegalArgumentException(
+					"Invalid geolocation cache prefix lengths: /" + ipv4PrefixLength + ", /" + ipv6PrefixLength);
+		}
+
+		this.enabled = enabled;
+		this.ipv4PrefixLength = ipv4PrefixLength;
+		this.ipv6PrefixLength = ipv6PrefixLength;
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+	}
+
+	public GeolocationResult get(String ipAddress, Function<String, GeolocationResult> loader) {
+
+		if (!enabled || ipAddress == null) {
+
+			return loader.apply(ipAddress);
+		}
+
+		return cache.get(key(ipAddress.trim()), key -> loader.apply(ipAddress));
+	}
+
+	private Object key(String ip) {
+
+		if (ip.indexOf(':') < 0) {
+
+			long ipv4 = GeolocationDatabase.parseIPv4(ip, 0, ip.length());
+
+			if (ipv4 >= 0) {
+
+				return ipv4Key(ipv4);
+			}
+
+		} else {
+
+			long[] ipv6 = GeolocationDatabase.parseIPv6(ip);
+
+			if (ipv6 != null) {
+
+				long embeddedIPv4 = GeolocationDatabase.embeddedIPv4(ipv6[0], ipv6[1]);
+
+				if (embeddedIPv4 >= 0) {
+
+					return ipv4Key(embeddedIPv4);
+				}
+
+				return new IPv6Prefix(mask(ipv6[0], ipv6PrefixLength), mask(ipv6[1], ipv6PrefixLength - 64));
+			}
+		}
+
+		// Unparseable input is cached as-is so repeated garbage is rejected cheaply.
+		return ip;
+	}
+
+	private Long ipv4Key(long ipv4) {
+
+		return ipv4 & (0xFFFFFFFFL << (32 - ipv4PrefixLength));
+	}
+
+	private static long mask(long value, int prefixLength) {
+
+		if (prefixLength <= 0) {
+
+			return 0;
+		}
+
+		return prefixLength >= 64 ? value : value & (-1L << (64 - prefixLength));
+	}
+
+	public boolean isEnabled() {
+
+		return enabled;
+	}
+
+	public long size() {
+
+		return cache.estimatedSize();
+	}
+
+	public CacheStats stats() {
+
+		return cache.stats();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		CaffeineCacheMetrics.monitor(registry, cache, "geolocation");
+	}
+
+	private record IPv6Prefix(long high, long low) {
+	}
+}
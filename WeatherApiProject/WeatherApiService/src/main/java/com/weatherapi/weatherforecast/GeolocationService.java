@@ -1,13 +1,15 @@
 package com.weatherapi.weatherforecast;
 
-import java.io.IOException;
+import java.nio.file.Path;
 
-import com.ip2location.IP2Location;
-import com.ip2location.IPResult;
 import com.weatherapi.weatherforecast.common.Location;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -15,15 +17,26 @@ public class GeolocationService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(GeolocationService.class);
 
-	private String DBPath = "ip2locdb/IP2LOCATION-LITE-DB3.BIN";
+	private String DBPath;
+
+	private GeolocationDatabase database;
 
-	private IP2Location ipLocator = new IP2Location();
+	private GeolocationCache geolocationCache;
 
-	public GeolocationService() {
+	@Autowired
+	public GeolocationService(
+			@Value("${weatherapi.geolocation.database:ip2locdb/IP2LOCATION-LITE-DB3.BIN}") String DBPath,
+			GeolocationCache geolocationCache) {
+		super();
+		this.DBPath = DBPath;
+		this.geolocationCache = geolocationCache;
 
 		try {
 
-			ipLocator.Open(DBPath);
+			database = GeolocationDatabase.load(Path.of(DBPath));
+
+			LOGGER.info("Loaded {} IPv4 and {} IPv6 ranges from {}", database.getIPv4RangeCount(),
+					database.getIPv6RangeCount(), DBPath);
 
 		} catch (Exception ex) {
 
@@ -31,25 +44,33 @@ public class GeolocationService {
 		}
 	}
 
-	public Location getLocation(String ipAddress) throws GeolocationException {
+	public GeolocationService(GeolocationDatabase database, GeolocationCache geolocationCache) {
+		super();
+		this.database = database;
+		this.geolocationCache = geolocationCache;
+	}
 
-		try {
+	@Timed("weatherapi.geolocation")
+	public Location getLocation(String ipAddress) throws GeolocationException {
 
-			IPResult result = ipLocator.IPQuery(ipAddress);
+		GeolocationResult result = database != null ? geolocationCache.get(ipAddress, database::lookup)
+				: GeolocationResult.MISSING_FILE;
 
-			if (!"OK".equals(result.getStatus())) {
+		if (!result.isOK()) {
 
-				throw new GeolocationException("Geolocation failed with status: " + result.getStatus());
-			}
+			throw new GeolocationException("Geolocation failed with status: " + result.getStatus());
+		}
 
-			return new Location(result.getCity(), result.getRegion(), result.getCountryLong(),
-					result.getCountryShort());
+		Location location = new Location(result.getCity(), result.getRegion(), result.getCountryLong(),
+				result.getCountryShort());
 
-		} catch (IOException ex) {
+		if (result.hasCoordinates()) {
 
-			throw new GeolocationException("Error querying IP database: ", ex);
+			location.setLatitude((double) result.getLatitude());
+			location.setLongitude((double) result.getLongitude());
 		}
 
+		return location;
 	}
 
 }
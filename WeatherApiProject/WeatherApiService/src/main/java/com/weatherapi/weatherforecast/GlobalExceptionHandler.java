@@ -26,6 +26,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+	private static final SampledLogger VALIDATION_FAILURES = new SampledLogger(LOGGER, 100);
+
+	private ApiOutcomes apiOutcomes;
+
+	public GlobalExceptionHandler(ApiOutcomes apiOutcomes) {
+		super();
+		this.apiOutcomes = apiOutcomes;
+	}
+
 	@ExceptionHandler(Exception.class)
 	@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
 	@ResponseBody
@@ -59,7 +68,9 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 			error.addError(fieldError.getDefaultMessage());
 		});
 
-		LOGGER.error(ex.getMessage(), ex);
+		apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+		VALIDATION_FAILURES.warn(ex);
 
 		return new ResponseEntity<>(error, headers, status);
 	}
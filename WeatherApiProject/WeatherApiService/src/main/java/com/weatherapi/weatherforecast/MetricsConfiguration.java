@@ -0,0 +1,32 @@
+package com.weatherapi.weatherforecast;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Configuration
+public class MetricsConfiguration {
+
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry registry) {
+
+		return new TimedAspect(registry);
+	}
+
+	/**
+	 * Publishes Hibernate statistics, including second-level and query cache
+	 * hits, misses and puts per region, as hibernate.* meters.
+	 */
+	@Bean
+	public HibernateMetrics hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+
+		return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "weatherapi", Tags.empty());
+	}
+}
@@ -0,0 +1,76 @@
+package com.weatherapi.weatherforecast;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single auto-configured data source with a routing one when
+ * read replicas are configured. Replica pools copy the primary's Hikari
+ * settings and are marked read-only.
+ */
+@Configuration
+@ConditionalOnExpression("!'${weatherapi.datasource.replica-urls:}'.isBlank()")
+public class ReadReplicaConfiguration {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(HikariDataSource primaryDataSource,
+			ObjectProvider<MeterRegistry> meterRegistry,
+			@Value("${weatherapi.datasource.replica-urls}") List<String> replicaUrls,
+			@Value("${weatherapi.datasource.replica-username:${spring.datasource.username:}}") String username,
+			@Value("${weatherapi.datasource.replica-password:${spring.datasource.password:}}") String password,
+			@Value("${weatherapi.datasource.replica-lag-query:SHOW REPLICA STATUS}") String lagQuery,
+			@Value("${weatherapi.datasource.replica-max-lag:5s}") Duration maxLag,
+			@Value("${weatherapi.datasource.replica-check-interval:5s}") Duration checkInterval) {
+
+		List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+
+		for (String replicaUrl : replicaUrls) {
+
+			HikariDataSource replica = new HikariDataSource();
+
+			primaryDataSource.copyStateTo(replica);
+
+			replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + replicas.size());
+			replica.setJdbcUrl(replicaUrl.trim());
+			replica.setUsername(username);
+			replica.setPassword(password);
+			replica.setReadOnly(true);
+			replica.setMetricRegistry(meterRegistry.getIfAvailable());
+
+			replicas.add(replica);
+		}
+
+		return new ReadReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLag, checkInterval);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+
+		return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+	}
+}
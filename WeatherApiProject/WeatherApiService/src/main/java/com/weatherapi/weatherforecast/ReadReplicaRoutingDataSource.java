@@ -0,0 +1,278 @@
+package com.weatherapi.weatherforecast;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the
+ * primary. Replicas are probed on a schedule with the lag query, and a replica
+ * whose lag is unknown or above the tolerance is skipped until it catches up;
+ * with no healthy replica, reads fall back to the primary.
+ * <p>
+ * The connection must be fetched after the transaction is marked read-only,
+ * so this data source is used behind a LazyConnectionDataSourceProxy.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+	private static final String PRIMARY = "primary";
+
+	private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+
+	private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+	private List<Replica> replicas = new ArrayList<>();
+
+	private volatile List<Replica> healthyReplicas = List.of();
+
+	private AtomicInteger next = new AtomicInteger();
+
+	private LongAdder replicaReads = new LongAdder();
+
+	private LongAdder fallbackReads = new LongAdder();
+
+	private String lagQuery;
+
+	private long maxLagSeconds;
+
+	private Duration checkInterval;
+
+	private ScheduledExecutorService checker;
+
+	public ReadReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaDataSources,
+			String lagQuery, Duration maxLag, Duration checkInterval) {
+		super();
+		this.lagQuery = lagQuery;
+		this.maxLagSeconds = maxLag.toSeconds();
+		this.checkInterval = checkInterval;
+
+		Map<Object, Object> targets = new HashMap<>();
+
+		targets.put(PRIMARY, primary);
+
+		for (HikariDataSource replicaDataSource : replicaDataSources) {
+
+			Replica replica = new Replica(replicaDataSource.getPoolName(), replicaDataSource);
+
+			replicas.add(replica);
+			targets.put(replica.name, replicaDataSource);
+		}
+
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+	}
+
+	/**
+	 * Runs the given read against the primary, even inside a read-only
+	 * transaction, for data that was just written and may not have reached the
+	 * replicas yet.
+	 */
+	public static <T> T onPrimary(Supplier<T> read) {
+
+		if (PRIMARY_ONLY.get() != null) {
+
+			return read.get();
+		}
+
+		PRIMARY_ONLY.set(Boolean.TRUE);
+
+		try {
+
+			return read.get();
+
+		} finally {
+
+			PRIMARY_ONLY.remove();
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		super.afterPropertiesSet();
+
+		checkReplicas();
+
+		checker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-check-"));
+
+		long checkMillis = checkInterval.toMillis();
+
+		checker.scheduleWithFixedDelay(this::checkReplicas, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Probes the lag of every replica and updates the set reads are routed to.
+	 */
+	public void checkReplicas() {
+
+		List<Replica> healthy = new ArrayList<>(replicas.size());
+
+		for (Replica replica : replicas) {
+
+			Long lagSeconds = probeLag(replica);
+
+			replica.lagSeconds = lagSeconds == null ? -1 : lagSeconds;
+
+			boolean wasHealthy = replica.healthy;
+
+			replica.healthy = lagSeconds != null && lagSeconds <= maxLagSeconds;
+
+			if (replica.healthy) {
+
+				healthy.add(replica);
+			}
+
+			if (wasHealthy != replica.healthy) {
+
+				LOGGER.info("Read replica {} is {} (lag {}s, tolerance {}s)", replica.name,
+						replica.healthy ? "back in rotation" : "out of rotation", lagSeconds, maxLagSeconds);
+			}
+		}
+
+		healthyReplicas = List.copyOf(healthy);
+	}
+
+	public int getHealthyReplicaCount() {
+
+		return healthyReplicas.size();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMARY_ONLY.get() != null) {
+
+			return PRIMARY;
+		}
+
+		List<Replica> candidates = healthyReplicas;
+
+		if (candidates.isEmpty()) {
+
+			fallbackReads.increment();
+
+			return PRIMARY;
+		}
+
+		replicaReads.increment();
+
+		return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())).name;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		FunctionCounter.builder("weatherapi.datasource.reads", replicaReads, LongAdder::sum).tag("target", "replica")
+				.register(registry);
+
+		FunctionCounter.builder("weatherapi.datasource.reads", fallbackReads, LongAdder::sum)
+				.tag("target", "primary_fallback").register(registry);
+
+		for (Replica replica : replicas) {
+
+			Gauge.builder("weatherapi.datasource.replica.lag", replica, r -> r.lagSeconds).tag("replica", replica.name)
+					.baseUnit("seconds").register(registry);
+
+			Gauge.builder("weatherapi.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+					.tag("replica", replica.name).register(registry);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+
+		if (checker != null) {
+
+			checker.shutdown();
+			checker.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		replicas.forEach(replica -> replica.dataSource.close());
+	}
+
+	/**
+	 * Returns the replica's lag in seconds, or null when it is unreachable or not
+	 * replicating. Reads MySQL's Seconds_Behind_Source when the lag query returns
+	 * that column, and the first column otherwise.
+	 */
+	private Long probeLag(Replica replica) {
+
+		try {
+
+			return new JdbcTemplate(replica.dataSource).query(lagQuery, rs -> {
+
+				if (!rs.next()) {
+
+					return null;
+				}
+
+				Object lag = rs.getObject(lagColumn(rs.getMetaData()));
+
+				return lag == null ? null : ((Number) lag).longValue();
+			});
+
+		} catch (RuntimeException ex) {
+
+			LOGGER.warn("Lag check failed for read replica {}: {}", replica.name, ex.getMessage());
+
+			return null;
+		}
+	}
+
+	private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+
+			if (MYSQL_LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+
+				return column;
+			}
+		}
+
+		return 1;
+	}
+
+	private static class Replica {
+
+		private String name;
+
+		private HikariDataSource dataSource;
+
+		private volatile boolean healthy;
+
+		private volatile long lagSeconds = -1;
+
+		Replica(String name, HikariDataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.weatherapi.weatherforecast;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the location codes written within the read-your-writes window.
+ * Reads of those codes go to the primary, so a replica that has not caught up
+ * yet cannot put a stale row into a cache.
+ */
+@Component
+public class RecentWrites {
+
+	private Cache<String, Boolean> codes;
+
+	public RecentWrites(@Value("${weatherapi.datasource.read-your-writes-window:10s}") Duration window) {
+		super();
+		this.codes = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(100_000).build();
+	}
+
+	public void record(String code) {
+
+		codes.put(code, Boolean.TRUE);
+	}
+
+	public <T> T read(String code, Supplier<T> read) {
+
+		if (codes.getIfPresent(code) == null) {
+
+			return read.get();
+		}
+
+		return ReadReplicaRoutingDataSource.onPrimary(read);
+	}
+
+	/**
+	 * Runs a read of several codes on the primary if any of them was written
+	 * recently.
+	 */
+	public <T> T readAll(Collection<String> codesRead, Supplier<T> read) {
+
+		for (String code : codesRead) {
+
+			if (codes.getIfPresent(code) != null) {
+
+				return ReadReplicaRoutingDataSource.onPrimary(read);
+			}
+		}
+
+		return read.get();
+	}
+}
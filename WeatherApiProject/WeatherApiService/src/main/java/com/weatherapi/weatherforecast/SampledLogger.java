@@ -0,0 +1,51 @@
+package com.weatherapi.weatherforecast;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+/**
+ * Logs failures that are part of normal traffic, such as unknown locations,
+ * without flooding the log: one in every {@code rate} occurrences is written at
+ * WARN, without a stack trace. With DEBUG enabled every occurrence is logged
+ * with its stack trace.
+ */
+public class SampledLogger {
+
+	private Logger logger;
+
+	private int rate;
+
+	private AtomicLong count = new AtomicLong();
+
+	public SampledLogger(Logger logger, int rate) {
+		super();
+
+		if (rate < 1) {
+
+			throw new IllegalArgumentException("Invalid sample rate: " + rate);
+		}
+
+		this.logger = logger;
+		this.rate = rate;
+	}
+
+	public void warn(Throwable ex) {
+
+		long occurrences = count.incrementAndGet();
+
+		if (logger.isDebugEnabled()) {
+
+			logger.debug(ex.getMessage(), ex);
+
+		} else if ((occurrences - 1) % rate == 0) {
+
+			logger.warn("{} ({} occurrences so far, logging 1 in {})", ex.getMessage(), occurrences, rate);
+		}
+	}
+
+	public long getCount() {
+
+		return count.get();
+	}
+}
@@ -1,10 +1,24 @@
 package com.weatherapi.weatherforecast.location;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weatherapi.weatherforecast.ApiOutcomes;
 import com.weatherapi.weatherforecast.common.Location;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,7 +27,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
 
@@ -21,11 +38,31 @@ import jakarta.validation.Valid;
 @RequestMapping("/v1/locations")
 public class LocationApiController {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationApiController.class);
+
 	private LocationService locationService;
 
-	public LocationApiController(LocationService locationService) {
+	private LocationImporter locationImporter;
+
+	private ObjectMapper objectMapper;
+
+	private int defaultPageSize;
+
+	private int maxPageSize;
+
+	private ApiOutcomes apiOutcomes;
+
+	public LocationApiController(LocationService locationService, LocationImporter locationImporter,
+			ObjectMapper objectMapper, ApiOutcomes apiOutcomes,
+			@Value("${weatherapi.location.page.default-size:100}") int defaultPageSize,
+			@Value("${weatherapi.location.page.max-size:1000}") int maxPageSize) {
 		super();
 		this.locationService = locationService;
+		this.locationImporter = locationImporter;
+		this.objectMapper = objectMapper;
+		this.defaultPageSize = defaultPageSize;
+		this.maxPageSize = maxPageSize;
+		this.apiOutcomes = apiOutcomes;
 	}
 
 	@PostMapping
@@ -38,17 +75,110 @@ public class LocationApiController {
 		return ResponseEntity.created(uri).body(addedLocation);
 	}
 
+	@PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<LocationImportResultDTO> importLocationsNdjson(InputStream body) throws IOException {
+
+		return ResponseEntity.ok(locationImporter.importNdjson(new InputStreamReader(body, StandardCharsets.UTF_8)));
+	}
+
+	@PostMapping(path = "/import", consumes = LocationCsv.MEDIA_TYPE_VALUE)
+	public ResponseEntity<LocationImportResultDTO> importLocationsCsv(InputStream body) throws IOException {
+
+		try {
+
+			return ResponseEntity.ok(locationImporter.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8)));
+
+		} catch (IllegalArgumentException ex) {
+
+			apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+			LOGGER.warn("Rejected location import: {}", ex.getMessage());
+
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
 	@GetMapping
-	public ResponseEntity<?> listLocations() {
+	public ResponseEntity<?> listLocations(@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "size", required = false) Integer size) {
+
+		int pageSize = size == null ? defaultPageSize : size;
 
-		List<Location> locations = locationService.list();
+		if (pageSize < 1 || pageSize > maxPageSize) {
+
+			return ResponseEntity.badRequest().build();
+		}
+
+		List<Location> locations = locationService.list(cursor, pageSize);
 
 		if (locations.isEmpty()) {
 
 			return ResponseEntity.noContent().build();
 		}
 
-		return ResponseEntity.ok(locations);
+		if (locations.size() < pageSize) {
+
+			return ResponseEntity.ok(locations);
+		}
+
+		String nextCursor = locations.get(locations.size() - 1).getCode();
+
+		URI next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("cursor", nextCursor)
+				.replaceQueryParam("size", pageSize).build().encode().toUri();
+
+		return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(locations);
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamLocations() {
+
+		StreamingResponseBody body = outputStream -> {
+
+			try (SequenceWriter writer = objectMapper.writerFor(Location.class)
+					.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).withRootValueSeparator("\n")
+					.writeValues(outputStream)) {
+
+				locationService.forEach(location -> {
+
+					try {
+
+						writer.write(location);
+
+					} catch (IOException ex) {
+
+						throw new UncheckedIOException(ex);
+					}
+				});
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	@GetMapping(produces = LocationCsv.MEDIA_TYPE_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportLocationsCsv() {
+
+		StreamingResponseBody body = outputStream -> {
+
+			try (SequenceWriter writer = LocationCsv.MAPPER.writerFor(Location.class)
+					.with(LocationCsv.SCHEMA.withHeader()).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+					.writeValues(outputStream)) {
+
+				locationService.forEach(location -> {
+
+					try {
+
+						writer.write(location);
+
+					} catch (IOException ex) {
+
+						throw new UncheckedIOException(ex);
+					}
+				});
+			}
+		};
+
+		return ResponseEntity.ok().contentType(LocationCsv.MEDIA_TYPE).body(body);
 	}
 
 	@GetMapping("/{code}")
@@ -58,6 +188,8 @@ public class LocationApiController {
 
 		if (location == null) {
 
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
 			return ResponseEntity.notFound().build();
 		}
 
@@ -75,6 +207,8 @@ public class LocationApiController {
 
 		} catch (LocationNotFoundException e) {
 
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
 			return ResponseEntity.notFound().build();
 		}
 	}
@@ -90,6 +224,8 @@ public class LocationApiController {
 			
 		} catch (LocationNotFoundException e) {
 
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
 			return ResponseEntity.notFound().build();
 		}
 	}
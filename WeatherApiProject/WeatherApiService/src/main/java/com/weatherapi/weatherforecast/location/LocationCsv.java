@@ -0,0 +1,28 @@
+package com.weatherapi.weatherforecast.location;
+
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import org.springframework.http.MediaType;
+
+/**
+ * CSV representation of locations, one per line, with the same column names as
+ * the JSON properties. An empty field is read as null.
+ */
+final class LocationCsv {
+
+	static final String MEDIA_TYPE_VALUE = "text/csv";
+
+	static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+	static final CsvMapper MAPPER = CsvMapper.builder().enable(CsvParser.Feature.EMPTY_STRING_AS_NULL).build();
+
+	static final CsvSchema SCHEMA = CsvSchema.builder().addColumn("code").addColumn("city_name")
+			.addColumn("region_name").addColumn("country_name").addColumn("country_code")
+			.addNumberColumn("latitude").addNumberColumn("longitude").addBooleanColumn("enabled").build();
+
+	private LocationCsv() {
+
+	}
+}
@@ -0,0 +1,51 @@
+package com.weatherapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocationImportErrorDTO {
+
+	private long line;
+
+	private String code;
+
+	private List<String> errors = new ArrayList<>();
+
+	public LocationImportErrorDTO() {
+
+	}
+
+	public LocationImportErrorDTO(long line, String code) {
+		super();
+		this.line = line;
+		this.code = code;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public void setLine(long line) {
+		this.line = line;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<String> errors) {
+		this.errors = errors;
+	}
+
+	public void addError(String message) {
+		this.errors.add(message);
+	}
+}
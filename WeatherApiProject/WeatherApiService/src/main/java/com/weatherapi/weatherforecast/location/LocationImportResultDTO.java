@@ -0,0 +1,52 @@
+package com.weatherapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class LocationImportResultDTO {
+
+	private long imported;
+
+	private long failed;
+
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	private List<LocationImportErrorDTO> errors = new ArrayList<>();
+
+	@JsonProperty("errors_truncated")
+	private boolean errorsTruncated;
+
+	public long getImported() {
+		return imported;
+	}
+
+	public void setImported(long imported) {
+		this.imported = imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+
+	public List<LocationImportErrorDTO> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<LocationImportErrorDTO> errors) {
+		this.errors = errors;
+	}
+
+	public boolean isErrorsTruncated() {
+		return errorsTruncated;
+	}
+
+	public void setErrorsTruncated(boolean errorsTruncated) {
+		this.errorsTruncated = errorsTruncated;
+	}
+}
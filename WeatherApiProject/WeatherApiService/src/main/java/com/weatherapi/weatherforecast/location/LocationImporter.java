@@ -0,0 +1,337 @@
+package com.weatherapi.weatherforecast.location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.weatherapi.weatherforecast.ApiOutcomes;
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports locations from CSV or newline-delimited JSON, one location per row.
+ * Rows are parsed and validated as they are read and upserted in chunks, each
+ * in its own transaction, so memory use does not grow with the input. A row
+ * that fails is reported by the line it starts on and skipped; the rest of the
+ * input is still imported. When a chunk fails to save, its rows are saved one
+ * by one, so only the failing rows are rejected.
+ */
+@Component
+public class LocationImporter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationImporter.class);
+
+	private LocationService locationService;
+
+	private ObjectReader jsonReader;
+
+	private Validator validator;
+
+	private int chunkSize;
+
+	private int maxErrors;
+
+	private ApiOutcomes apiOutcomes;
+
+	public LocationImporter(LocationService locationService, ObjectMapper objectMapper, Validator validator,
+			ApiOutcomes apiOutcomes, @Value("${weatherapi.location.import.chunk-size:500}") int chunkSize,
+			@Value("${weatherapi.location.import.max-errors:1000}") int maxErrors) {
+		super();
+		this.locationService = locationService;
+		this.jsonReader = objectMapper.readerFor(Location.class);
+		this.validator = validator;
+		this.chunkSize = chunkSize;
+		this.maxErrors = maxErrors;
+		this.apiOutcomes = apiOutcomes;
+	}
+
+	public LocationImportResultDTO importNdjson(Reader body) throws IOException {
+
+		return importRows(new NdjsonRows(new BufferedReader(body), jsonReader));
+	}
+
+	/**
+	 * Reads a CSV header row naming any of the location columns, in any order,
+	 * followed by one location per record. Quoted fields may span lines.
+	 * 
+	 * @throws IllegalArgumentException if the header is missing or names an
+	 *                                  unknown column
+	 */
+	public LocationImportResultDTO importCsv(Reader body) throws IOException {
+
+		MappingIterator<Location> iterator = LocationCsv.MAPPER.readerFor(Location.class)
+				.with(CsvSchema.emptySchema().withHeader()).with(CsvParser.Feature.SKIP_EMPTY_LINES)
+				.readValues(body);
+
+		// Reads the header row, if any, into the parser's schema.
+		iterator.hasNextValue();
+
+		validateHeader((CsvSchema) iterator.getParserSchema());
+
+		return importRows(new CsvRows(iterator));
+	}
+
+	private LocationImportResultDTO importRows(Rows rows) throws IOException {
+
+		LocationImportResultDTO result = new LocationImportResultDTO();
+
+		List<Location> chunk = new ArrayList<>(chunkSize);
+		List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+		while (rows.next()) {
+
+			long line = rows.line();
+
+			Location location;
+
+			try {
+
+				location = rows.read();
+
+			} catch (JsonProcessingException ex) {
+
+				rejectInvalid(result, line, null, ex.getOriginalMessage());
+
+				continue;
+			}
+
+			if (location == null) {
+
+				rejectInvalid(result, line, null, "Row is not a location");
+
+				continue;
+			}
+
+			LocationImportErrorDTO error = new LocationImportErrorDTO(line, location.getCode());
+
+			for (ConstraintViolation<Location> violation : validator.validate(location)) {
+
+				error.addError(violation.getMessage());
+			}
+
+			if (!error.getErrors().isEmpty()) {
+
+				apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+				addError(result, error);
+
+				continue;
+			}
+
+			chunk.add(location);
+			chunkLines.add(line);
+
+			if (chunk.size() == chunkSize) {
+
+				save(result, chunk, chunkLines);
+			}
+		}
+
+		save(result, chunk, chunkLines);
+
+		return result;
+	}
+
+	private void save(LocationImportResultDTO result, List<Location> chunk, List<Long> chunkLines) {
+
+		if (chunk.isEmpty()) {
+
+			return;
+		}
+
+		try {
+
+			locationService.addAll(chunk);
+
+			result.setImported(result.getImported() + chunk.size());
+
+		} catch (DataAccessException ex) {
+
+			LOGGER.warn("Failed to import {} locations from line {}, saving them one by one: {}", chunk.size(),
+					chunkLines.get(0), ex.getMostSpecificCause().getMessage());
+
+			for (int i = 0; i < chunk.size(); i++) {
+
+				saveOne(result, chunk.get(i), chunkLines.get(i));
+			}
+		}
+
+		chunk.clear();
+		chunkLines.clear();
+	}
+
+	private void saveOne(LocationImportResultDTO result, Location location, long line) {
+
+		try {
+
+			locationService.addAll(List.of(location));
+
+			result.setImported(result.getImported() + 1);
+
+		} catch (DataAccessException ex) {
+
+			LOGGER.warn("Failed to import location {} from line {}: {}", location.getCode(), line,
+					ex.getMostSpecificCause().getMessage());
+
+			LocationImportErrorDTO error = new LocationImportErrorDTO(line, location.getCode());
+
+			error.addError("Location could not be saved");
+
+			addError(result, error);
+		}
+	}
+
+	private void rejectInvalid(LocationImportResultDTO result, long line, String code, String message) {
+
+		apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+		LocationImportErrorDTO error = new LocationImportErrorDTO(line, code);
+
+		error.addError(message);
+
+		addError(result, error);
+	}
+
+	// Counts every failed row but keeps only the first maxErrors of them.
+	private void addError(LocationImportResultDTO result, LocationImportErrorDTO error) {
+
+		result.setFailed(result.getFailed() + 1);
+
+		if (result.getErrors().size() < maxErrors) {
+
+			result.getErrors().add(error);
+
+		} else {
+
+			result.setErrorsTruncated(true);
+		}
+	}
+
+	private static void validateHeader(CsvSchema header) {
+
+		if (header.size() == 0) {
+
+			throw new IllegalArgumentException("CSV input has no header row");
+		}
+
+		for (CsvSchema.Column column : header) {
+
+			if (LocationCsv.SCHEMA.column(column.getName()) == null) {
+
+				throw new IllegalArgumentException("Unknown CSV column: " + column.getName());
+			}
+		}
+	}
+
+	// The rows of an input, each read after advancing to it.
+	private interface Rows {
+
+		/**
+		 * Advances to the next row, skipping blank lines, and returns false at the
+		 * end of the input.
+		 */
+		boolean next() throws IOException;
+
+		/**
+		 * Returns the line the current row starts on, counting from 1.
+		 */
+		long line();
+
+		Location read() throws IOException;
+	}
+
+	private static class NdjsonRows implements Rows {
+
+		private BufferedReader reader;
+
+		private ObjectReader jsonReader;
+
+		private String row;
+
+		private long line;
+
+		NdjsonRows(BufferedReader reader, ObjectReader jsonReader) {
+			this.reader = reader;
+			this.jsonReader = jsonReader;
+		}
+
+		@Override
+		public boolean next() throws IOException {
+
+			do {
+
+				row = reader.readLine();
+				line++;
+
+			} while (row != null && row.isBlank());
+
+			return row != null;
+		}
+
+		@Override
+		public long line() {
+			return line;
+		}
+
+		@Override
+		public Location read() throws IOException {
+
+			return jsonReader.readValue(row);
+		}
+	}
+
+	// Parses the whole stream, so a quoted field may contain line breaks. A row
+	// that fails to bind is skipped up to its end on the next call to next().
+	private static class CsvRows implements Rows {
+
+		private MappingIterator<Location> iterator;
+
+		private long line;
+
+		CsvRows(MappingIterator<Location> iterator) {
+			this.iterator = iterator;
+		}
+
+		@Override
+		public boolean next() throws IOException {
+
+			if (!iterator.hasNextValue()) {
+
+				return false;
+			}
+
+			// Positioned at the start of the row, which skipped blank lines and
+			// line breaks in quoted fields have already moved past.
+			line = iterator.getParser().currentLocation().getLineNr();
+
+			return true;
+		}
+
+		@Override
+		public long line() {
+			return line;
+		}
+
+		@Override
+		public Location read() throws IOException {
+
+			return iterator.nextValue();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.weatherapi.weatherforecast.location;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory index from normalized (country code, city name) pairs, and from
+ * coordinates, to the codes of untrashed locations. Loaded once at startup and
+ * kept in sync by {@link LocationService}.
+ */
+@Component
+public class LocationIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationIndex.class);
+
+	private LocationRepository locationRepository;
+
+	private Map<Key, String> codesByKey = new ConcurrentHashMap<>();
+
+	private Map<String, Key> keysByCode = new ConcurrentHashMap<>();
+
+	private Map<String, Location> locationsByCode = new ConcurrentHashMap<>();
+
+	private LocationGrid grid = new LocationGrid();
+
+	public LocationIndex(LocationRepository locationRepository) {
+		super();
+		this.locationRepository = locationRepository;
+	}
+
+	@PostConstruct
+	public void load() {
+
+		for (Location location : locationRepository.findUntrashed()) {
+
+			put(location);
+		}
+
+		LOGGER.info("Indexed {} locations by country code and city name, {} of them by coordinates",
+				keysByCode.size(), grid.size());
+	}
+
+	public String findCode(String countryCode, String cityName) {
+
+		if (countryCode == null || cityName == null) {
+
+			return null;
+		}
+
+		return codesByKey.get(new Key(countryCode, cityName));
+	}
+
+	/**
+	 * Returns the code of the untrashed location nearest to the given
+	 * coordinates, or null if there is none within the given distance.
+	 */
+	public String findNearestCode(double latitude, double longitude, double maxDistanceKm) {
+
+		return grid.findNearest(latitude, longitude, maxDistanceKm);
+	}
+
+	/**
+	 * Returns a detached copy of the untrashed location with the given code,
+	 * without its realtime weather, or null if it is not indexed.
+	 */
+	public Location findLocation(String code) {
+
+		return locationsByCode.get(code);
+	}
+
+	public synchronized void put(Location location) {
+
+		String code = location.getCode();
+
+		remove(code);
+
+		if (location.isTrashed() || location.getCountryCode() == null || location.getCityName() == null) {
+
+			return;
+		}
+
+		Key key = new Key(location.getCountryCode(), location.getCityName());
+
+		Location copy = new Location(location.getCityName(), location.getRegionName(), location.getCountryName(),
+				location.getCountryCode());
+
+		copy.setCode(code);
+		copy.setEnabled(location.isEnabled());
+		copy.setLatitude(location.getLatitude());
+		copy.setLongitude(location.getLongitude());
+
+		keysByCode.put(code, key);
+		locationsByCode.put(code, copy);
+		codesByKey.putIfAbsent(key, code);
+
+		if (location.getLatitude() != null && location.getLongitude() != null) {
+
+			grid.put(code, location.getLatitude(), location.getLongitude());
+		}
+	}
+
+	public synchronized void remove(String code) {
+
+		Key key = keysByCode.remove(code);
+
+		locationsByCode.remove(code);
+		grid.remove(code);
+
+		if (key != null && codesByKey.remove(key, code)) {
+
+			// Another location may share the same country and city; let it take over the key.
+			keysByCode.entrySet().stream().filter(entry -> entry.getValue().equals(key)).findFirst()
+					.ifPresent(entry -> codesByKey.put(key, entry.getKey()));
+		}
+	}
+
+	public int size() {
+
+		return keysByCode.size();
+	}
+
+	private record Key(String countryCode, String cityName) {
+
+		Key {
+			countryCode = countryCode.trim().toUpperCase(Locale.ROOT);
+			cityName = cityName.trim().toLowerCase(Locale.ROOT);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.weatherapi.weatherforecast.location;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.weatherapi.weatherforecast.common.Location;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+
+@Timed("weatherapi.repository.jdbc")
+@Repository
+public class LocationJdbcRepository {
+
+	private static final String SELECT_UNTRASHED_SQL = "SELECT code, city_name, region_name, country_name,"
+			+ " country_code, latitude, longitude, enabled FROM locations WHERE trashed = false ORDER BY code";
+
+	// An imported location is restored if it was trashed.
+	private static final String UPSERT_SQL = "INSERT INTO locations"
+			+ " (code, city_name, region_name, country_name, country_code, latitude, longitude, enabled, trashed)"
+			+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?, false)"
+			+ " ON DUPLICATE KEY UPDATE city_name = VALUES(city_name), region_name = VALUES(region_name),"
+			+ " country_name = VALUES(country_name), country_code = VALUES(country_code),"
+			+ " latitude = VALUES(latitude), longitude = VALUES(longitude), enabled = VALUES(enabled),"
+			+ " trashed = false";
+
+	private JdbcTemplate jdbcTemplate;
+
+	private EntityManagerFactory entityManagerFactory;
+
+	private int fetchSize;
+
+	public LocationJdbcRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+			@Value("${weatherapi.location.stream.fetch-size:500}") int fetchSize) {
+		super();
+		this.jdbcTemplate = jdbcTemplate;
+		this.entityManagerFactory = entityManagerFactory;
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Passes every untrashed location to the consumer as it is read from a
+	 * forward-only cursor, so no more than one fetch of rows is held in memory.
+	 */
+	public void forEachUntrashed(Consumer<Location> consumer) {
+
+		jdbcTemplate.query(connection -> {
+
+			PreparedStatement statement = connection.prepareStatement(SELECT_UNTRASHED_SQL,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+			statement.setFetchSize(fetchSize);
+
+			return statement;
+
+		}, resultSet -> {
+
+			Location location = new Location(resultSet.getString("city_name"), resultSet.getString("region_name"),
+					resultSet.getString("country_name"), resultSet.getString("country_code"));
+
+			location.setCode(resultSet.getString("code"));
+			location.setLatitude(resultSet.getObject("latitude", Double.class));
+			location.setLongitude(resultSet.getObject("longitude", Double.class));
+			location.setEnabled(resultSet.getBoolean("enabled"));
+
+			consumer.accept(location);
+		});
+	}
+
+	@Transactional
+	public void upsertAll(List<Location> locations) {
+
+		jdbcTemplate.batchUpdate(UPSERT_SQL, locations, locations.size(), (ps, location) -> {
+
+			ps.setString(1, location.getCode());
+			ps.setString(2, location.getCityName());
+			ps.setString(3, location.getRegionName());
+			ps.setString(4, location.getCountryName());
+			ps.setString(5, location.getCountryCode());
+			ps.setObject(6, location.getLatitude(), Types.DOUBLE);
+			ps.setObject(7, location.getLongitude(), Types.DOUBLE);
+			ps.setBoolean(8, location.isEnabled());
+		});
+	}
+
+	/**
+	 * Drops the given locations, and every cached location query, from
+	 * Hibernate's second-level cache, which writes through JDBC bypass. Call it
+	 * after the write has committed.
+	 */
+	public void evictCached(List<Location> locations) {
+
+		Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+
+		locations.forEach(location -> cache.evictEntityData(Location.class, location.getCode()));
+
+		cache.evictQueryRegion(LocationRepository.UNTRASHED_QUERY_REGION);
+		cache.evictQueryRegion(LocationRepository.BY_CODE_QUERY_REGION);
+	}
+}
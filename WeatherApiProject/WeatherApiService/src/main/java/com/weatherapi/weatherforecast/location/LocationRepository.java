@@ -1,24 +1,45 @@
 package com.weatherapi.weatherforecast.location;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.weatherapi.weatherforecast.common.Location;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 
 public interface LocationRepository extends CrudRepository<Location, String> {
 
+	public static final String UNTRASHED_QUERY_REGION = "locations-untrashed";
+
+	public static final String BY_CODE_QUERY_REGION = "locations-by-code";
+
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = UNTRASHED_QUERY_REGION) })
 	@Query("SELECT l FROM Location l WHERE l.trashed = false")
 	public List<Location> findUntrashed();
 
+	@Query("SELECT l FROM Location l WHERE l.trashed = false AND l.code > ?1 ORDER BY l.code")
+	public List<Location> findUntrashedAfter(String code, Limit limit);
+
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_CODE_QUERY_REGION) })
 	@Query("SELECT l FROM Location l WHERE l.trashed = false AND l.code = ?1")
 	public Location findByCode(String code);
 
-	@Modifying
+	@Query("SELECT l.code FROM Location l WHERE l.trashed = false AND l.code IN ?1")
+	public List<String> findUntrashedCodes(Collection<String> codes);
+
+	// Bulk HQL updates evict the locations entity region and invalidate the
+	// query cache regions above; clearing also drops stale managed copies.
+	@Modifying(clearAutomatically = true)
 	@Transactional
 	@Query("UPDATE Location SET trashed = true WHERE code = ?1")
 	public void trashByCode(String code);
@@ -1,34 +1,83 @@
 package com.weatherapi.weatherforecast.location;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.weatherapi.weatherforecast.RecentWrites;
 import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherCache;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+@Timed("weatherapi.service")
 @Service
 public class LocationService {
 
 	private LocationRepository locationRepository;
 
-	public LocationService(LocationRepository locationRepository) {
+	private RealtimeWeatherCache realtimeWeatherCache;
+
+	private LocationIndex locationIndex;
+
+	private LocationJdbcRepository locationJdbcRepository;
+
+	private RecentWrites recentWrites;
+
+	public LocationService(LocationRepository locationRepository, RealtimeWeatherCache realtimeWeatherCache,
+			LocationIndex locationIndex, LocationJdbcRepository locationJdbcRepository, RecentWrites recentWrites) {
 		super();
 		this.locationRepository = locationRepository;
+		this.realtimeWeatherCache = realtimeWeatherCache;
+		this.locationIndex = locationIndex;
+		this.locationJdbcRepository = locationJdbcRepository;
+		this.recentWrites = recentWrites;
 	}
 
 	public Location add(Location location) {
 
-		return locationRepository.save(location);
+		Location addedLocation = locationRepository.save(location);
+
+		recentWrites.record(addedLocation.getCode());
+		locationIndex.put(addedLocation);
+
+		return addedLocation;
 	}
 
-	public List<Location> list() {
+	/**
+	 * Inserts or updates the locations in one batched transaction, restoring any
+	 * that were trashed.
+	 */
+	public void addAll(List<Location> locations) {
+
+		locationJdbcRepository.upsertAll(locations);
+		locationJdbcRepository.evictCached(locations);
 
-		return locationRepository.findUntrashed();
+		for (Location location : locations) {
+
+			realtimeWeatherCache.evict(location.getCode());
+			locationIndex.put(location);
+		}
 	}
 
+	@Transactional(readOnly = true)
+	public List<Location> list(String cursor, int size) {
+
+		return locationRepository.findUntrashedAfter(cursor == null ? "" : cursor, Limit.of(size));
+	}
+
+	public void forEach(Consumer<Location> consumer) {
+
+		locationJdbcRepository.forEachUntrashed(consumer);
+	}
+
+	@Transactional(readOnly = true)
 	public Location get(String code) {
 
-		return locationRepository.findByCode(code);
+		return recentWrites.read(code, () -> locationRepository.findByCode(code));
 	}
 
 	public Location update(Location locationInRequest) throws LocationNotFoundException {
@@ -47,8 +96,15 @@ public class LocationService {
 		locationInDB.setCountryCode(locationInRequest.getCountryCode());
 		locationInDB.setCountryName(locationInRequest.getCountryName());
 		locationInDB.setEnabled(locationInRequest.isEnabled());
+		locationInDB.setLatitude(locationInRequest.getLatitude());
+		locationInDB.setLongitude(locationInRequest.getLongitude());
+
+		Location updatedLocation = locationRepository.save(locationInDB);
 
-		return locationRepository.save(locationInDB);
+		realtimeWeatherCache.evict(code);
+		locationIndex.put(updatedLocation);
+
+		return updatedLocation;
 	}
 
 	public void delete(String code) throws LocationNotFoundException {
@@ -61,5 +117,8 @@ public class LocationService {
 		}
 
 		locationRepository.trashByCode(code);
+
+		realtimeWeatherCache.evict(code);
+		locationIndex.remove(code);
 	}
 }
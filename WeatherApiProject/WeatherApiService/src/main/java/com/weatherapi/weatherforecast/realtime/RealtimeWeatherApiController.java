@@ -1,48 +1,110 @@
 package com.weatherapi.weatherforecast.realtime;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.weatherapi.weatherforecast.ApiOutcomes;
 import com.weatherapi.weatherforecast.CommonUtility;
 import com.weatherapi.weatherforecast.GeolocationException;
 import com.weatherapi.weatherforecast.GeolocationService;
+import com.weatherapi.weatherforecast.SampledLogger;
 import com.weatherapi.weatherforecast.common.Location;
 import com.weatherapi.weatherforecast.common.RealtimeWeather;
 import com.weatherapi.weatherforecast.location.LocationNotFoundException;
 
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 @RestController
 @RequestMapping("/v1/realtime")
-public class RealtimeWeatherApiController {
+public class RealtimeWeatherApiController implements MeterBinder {
 
 	private static Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherApiController.class);
 
+	private static final SampledLogger GEOLOCATION_FAILURES = new SampledLogger(LOGGER, 100);
+
+	private static final SampledLogger LOCATIONS_NOT_FOUND = new SampledLogger(LOGGER, 100);
+
 	private GeolocationService locationService;
 
 	private RealtimeWeatherService realtimeWeatherService;
 
-	private ModelMapper modelMapper;
+	private ObjectMapper objectMapper;
+
+	private Validator validator;
+
+	private RealtimeWeatherResponseCache responseCache;
+
+	private boolean gzipResponses;
+
+	private int batchMaxSize;
+
+	private int lookupMaxCodes;
+
+	private ApiOutcomes apiOutcomes;
+
+	private LongAdder mappings = new LongAdder();
+
+	private LongAdder mappingNanos = new LongAdder();
 
 	public RealtimeWeatherApiController(GeolocationService locationService,
-			RealtimeWeatherService realtimeWeatherService, ModelMapper modelMapper) {
+			RealtimeWeatherService realtimeWeatherService, ObjectMapper objectMapper,
+			Validator validator, RealtimeWeatherResponseCache responseCache, ApiOutcomes apiOutcomes,
+			@Value("${weatherapi.realtime.response-cache.gzip:false}") boolean gzipResponses,
+			@Value("${weatherapi.realtime.batch.max-size:10000}") int batchMaxSize,
+			@Value("${weatherapi.realtime.lookup.max-codes:500}") int lookupMaxCodes) {
 		super();
 		this.locationService = locationService;
 		this.realtimeWeatherService = realtimeWeatherService;
-		this.modelMapper = modelMapper;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
+		this.responseCache = responseCache;
+		this.gzipResponses = gzipResponses;
+		this.batchMaxSize = batchMaxSize;
+		this.lookupMaxCodes = lookupMaxCodes;
+		this.apiOutcomes = apiOutcomes;
 	}
 
 	@GetMapping
-	public ResponseEntity<?> getRealtimeWeatherByIPAddress(HttpServletRequest request) {
+	public ResponseEntity<?> getRealtimeWeatherByIPAddress(HttpServletRequest request, WebRequest webRequest) {
 
 		String ipAddress = CommonUtility.getIPAddress(request);
 
@@ -52,41 +114,114 @@ public class RealtimeWeatherApiController {
 
 			RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocation(locationFromIP);
 
-			RealtimeWeatherDTO dto = modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
-
-			return ResponseEntity.ok(dto);
+			return conditionalResponse(realtimeWeather, webRequest, true);
 
 		} catch (GeolocationException ex) {
 
-			LOGGER.error(ex.getMessage(), ex);
+			apiOutcomes.record(ApiOutcomes.GEOLOCATION_FAILURE);
+
+			GEOLOCATION_FAILURES.warn(ex);
 
 			return ResponseEntity.badRequest().build();
 
 		} catch (LocationNotFoundException ex) {
 
-			LOGGER.error(ex.getMessage(), ex);
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+			LOCATIONS_NOT_FOUND.warn(ex);
+
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	@GetMapping(params = { "lat", "lon" })
+	public ResponseEntity<?> getRealtimeWeatherByCoordinates(@RequestParam("lat") double latitude,
+			@RequestParam("lon") double longitude, WebRequest webRequest) {
+
+		// Written so that NaN fails too.
+		if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+
+			apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+
+			RealtimeWeather realtimeWeather = realtimeWeatherService.getByCoordinates(latitude, longitude);
+
+			return conditionalResponse(realtimeWeather, webRequest, false);
+
+		} catch (LocationNotFoundException ex) {
+
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+			LOCATIONS_NOT_FOUND.warn(ex);
 
 			return ResponseEntity.notFound().build();
 		}
 	}
 
 	@GetMapping("/{locationCode}")
-	public ResponseEntity<?> getRealtimeWeatherByLocationCode(@PathVariable("locationCode") String locationCode) {
+	public ResponseEntity<?> getRealtimeWeatherByLocationCode(@PathVariable("locationCode") String locationCode,
+			WebRequest webRequest) {
 
 		try {
 
 			RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocationCode(locationCode);
 
-			return ResponseEntity.ok(entity2DTO(realtimeWeather));
+			return conditionalResponse(realtimeWeather, webRequest, false);
 
 		} catch (LocationNotFoundException ex) {
 
-			LOGGER.error(ex.getMessage(), ex);
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+			LOCATIONS_NOT_FOUND.warn(ex);
 
 			return ResponseEntity.notFound().build();
 		}
 	}
 
+	// Maps every requested code to its reading, or to null when there is no
+	// untrashed location with that code.
+	@PostMapping("/lookup")
+	public ResponseEntity<?> lookupRealtimeWeathers(@RequestBody List<String> codes) {
+
+		Set<String> locationCodes = new LinkedHashSet<>();
+
+		codes.stream().filter(Objects::nonNull).map(String::trim).filter(code -> !code.isEmpty())
+				.forEach(locationCodes::add);
+
+		if (locationCodes.isEmpty() || locationCodes.size() > lookupMaxCodes) {
+
+			apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+			return ResponseEntity.badRequest().build();
+		}
+
+		Map<String, RealtimeWeather> realtimeWeathers = realtimeWeatherService.getByLocationCodes(locationCodes);
+
+		Map<String, RealtimeWeatherDTO> results = new LinkedHashMap<>();
+
+		for (String locationCode : locationCodes) {
+
+			RealtimeWeather realtimeWeather = realtimeWeathers.get(locationCode);
+
+			if (realtimeWeather == null) {
+
+				apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+				results.put(locationCode, null);
+
+			} else {
+
+				results.put(locationCode, entity2DTO(realtimeWeather));
+			}
+		}
+
+		return ResponseEntity.ok(results);
+	}
+
 	@PutMapping("/{locationCode}")
 	public ResponseEntity<?> updateRealtimeWeather(@PathVariable("locationCode") String locationCode,
 			@RequestBody @Valid RealtimeWeather realtimeWeatherInRequest) {
@@ -98,18 +233,247 @@ public class RealtimeWeatherApiController {
 			RealtimeWeather updatedRealtimeWeather = realtimeWeatherService.update(locationCode,
 					realtimeWeatherInRequest);
 
-			return ResponseEntity.ok(entity2DTO(updatedRealtimeWeather));
+			// Serialized into the response cache, so the next read sends these bytes as is.
+			RealtimeWeatherResponseCache.Response response = responseCache.put(locationCode,
+					eTag(updatedRealtimeWeather), entity2DTO(updatedRealtimeWeather));
+
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response.getJson());
 
 		} catch (LocationNotFoundException ex) {
 
-			LOGGER.error(ex.getMessage(), ex);
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+			LOCATIONS_NOT_FOUND.warn(ex);
 
 			return ResponseEntity.notFound().build();
 		}
 	}
 
+	@PutMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<?> updateRealtimeWeathers(InputStream body) throws IOException {
+
+		List<RealtimeWeatherBatchItem> items = new ArrayList<>();
+
+		ObjectReader itemReader = objectMapper.readerFor(RealtimeWeatherBatchItem.class);
+
+		// A JSON array and newline-delimited JSON objects are both read as a sequence of values.
+		try (MappingIterator<JsonNode> iterator = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+
+			while (iterator.hasNextValue()) {
+
+				if (items.size() == batchMaxSize) {
+
+					LOGGER.warn("Batch exceeds the maximum of {} readings", batchMaxSize);
+
+					return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+				}
+
+				JsonNode node = iterator.nextValue();
+
+				// A null reading is reported in its own result instead of failing the batch.
+				items.add(node.isNull() ? null : itemReader.readValue(node));
+			}
+
+		} catch (JsonProcessingException ex) {
+
+			apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+			LOGGER.warn("Malformed realtime weather batch: {}", ex.getOriginalMessage());
+
+			return ResponseEntity.badRequest().build();
+		}
+
+		if (items.isEmpty()) {
+
+			return ResponseEntity.badRequest().build();
+		}
+
+		List<RealtimeWeatherBatchResultDTO> results = new ArrayList<>(items.size());
+		List<RealtimeWeather> validRealtimeWeathers = new ArrayList<>(items.size());
+
+		for (int index = 0; index < items.size(); index++) {
+
+			RealtimeWeatherBatchItem item = items.get(index);
+
+			if (item == null) {
+
+				apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+				RealtimeWeatherBatchResultDTO result = new RealtimeWeatherBatchResultDTO(index, null);
+				result.addError("Reading must be a JSON object");
+				result.setStatus(HttpStatus.BAD_REQUEST.value());
+
+				results.add(result);
+
+				continue;
+			}
+
+			RealtimeWeatherBatchResultDTO result = new RealtimeWeatherBatchResultDTO(index, item.getLocationCode());
+
+			for (ConstraintViolation<RealtimeWeatherBatchItem> violation : validator.validate(item)) {
+
+				result.addError(violation.getMessage());
+			}
+
+			if (result.getErrors().isEmpty()) {
+
+				item.getRealtimeWeather().setLocationCode(item.getLocationCode());
+				validRealtimeWeathers.add(item.getRealtimeWeather());
+
+			} else {
+
+				apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+				result.setStatus(HttpStatus.BAD_REQUEST.value());
+			}
+
+			results.add(result);
+		}
+
+		Set<String> updatedCodes = realtimeWeatherService.updateAll(validRealtimeWeathers);
+
+		for (RealtimeWeatherBatchResultDTO result : results) {
+
+			if (result.getStatus() != 0) {
+
+				continue;
+			}
+
+			if (updatedCodes.contains(result.getLocationCode())) {
+
+				result.setStatus(HttpStatus.OK.value());
+
+			} else {
+
+				apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+				result.setStatus(HttpStatus.NOT_FOUND.value());
+				result.addError("No location found with the given code: " + result.getLocationCode());
+			}
+		}
+
+		return ResponseEntity.ok(results);
+	}
+
+	/**
+	 * Answers with the reading, or 304 when the client's copy is current. A
+	 * response that depends on the client's address rather than the URL is only
+	 * validated by its ETag, which names the location: with If-Modified-Since, a
+	 * client whose address moved would get a 304 for the other location's body.
+	 */
+	private ResponseEntity<?> conditionalResponse(RealtimeWeather realtimeWeather, WebRequest webRequest,
+			boolean perClient) {
+
+		// Decided from the cached entity's version stamp, before mapping it to a DTO.
+		long lastModified = realtimeWeather.getLastUpdatedDtm() != null && !perClient
+				? realtimeWeather.getLastUpdatedDtm().getTime()
+				: -1;
+
+		String eTag = eTag(realtimeWeather);
+
+		boolean gzip = gzipResponses && acceptsGzip(webRequest);
+
+		// The gzip body is a different representation, so it gets a tag of its own.
+		String responseETag = gzip ? eTag.substring(0, eTag.length() - 1) + "-gzip\"" : eTag;
+
+		if (webRequest.checkNotModified(responseETag, lastModified)) {
+
+			return cacheHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), perClient).build();
+		}
+
+		// The body is mapped and serialized only when the cached bytes are from an
+		// older reading, and written out as is by the byte array converter.
+		RealtimeWeatherResponseCache.Response response = responseCache.get(realtimeWeather.getLocationCode(), eTag,
+				() -> entity2DTO(realtimeWeather));
+
+		// checkNotModified has already set the ETag and Last-Modified response headers.
+		ResponseEntity.BodyBuilder ok = cacheHeaders(ResponseEntity.ok(), perClient)
+				.contentType(MediaType.APPLICATION_JSON);
+
+		if (gzip) {
+
+			return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzip());
+		}
+
+		return ok.body(response.getJson());
+	}
+
+	private <B extends ResponseEntity.HeadersBuilder<B>> B cacheHeaders(B builder, boolean perClient) {
+
+		List<String> vary = new ArrayList<>(2);
+
+		if (gzipResponses) {
+
+			vary.add(HttpHeaders.ACCEPT_ENCODING);
+		}
+
+		if (perClient) {
+
+			// Shared caches must not hand one client's location to another.
+			builder.cacheControl(CacheControl.empty().cachePrivate());
+			vary.add(CommonUtility.IP_ADDRESS_HEADER);
+		}
+
+		return vary.isEmpty() ? builder : builder.varyBy(vary.toArray(String[]::new));
+	}
+
+	private static boolean acceptsGzip(WebRequest webRequest) {
+
+		String[] acceptEncodings = webRequest.getHeaderValues(HttpHeaders.ACCEPT_ENCODING);
+
+		if (acceptEncodings == null) {
+
+			return false;
+		}
+
+		for (String acceptEncoding : acceptEncodings) {
+
+			for (String coding : acceptEncoding.split(",")) {
+
+				String[] parts = coding.split(";");
+
+				if (parts[0].trim().equalsIgnoreCase("gzip")) {
+
+					// gzip;q=0 explicitly refuses it.
+					return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static String eTag(RealtimeWeather realtimeWeather) {
+
+		Location location = realtimeWeather.getLocation();
+
+		long lastUpdated = realtimeWeather.getLastUpdatedDtm() != null ? realtimeWeather.getLastUpdatedDtm().getTime()
+				: 0;
+
+		// The location label is part of the body, so a renamed location gets a new tag too.
+		int label = location != null ? location.toString().hashCode() : 0;
+
+		return "\"" + realtimeWeather.getLocationCode() + "-" + Long.toHexString(lastUpdated) + "-"
+				+ Integer.toHexString(label) + "\"";
+	}
+
 	private RealtimeWeatherDTO entity2DTO(RealtimeWeather realtimeWeather) {
 
-		return modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+		long start = System.nanoTime();
+
+		RealtimeWeatherDTO dto = RealtimeWeatherMapper.toDTO(realtimeWeather);
+
+		mappingNanos.add(System.nanoTime() - start);
+		mappings.increment();
+
+		return dto;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		FunctionTimer.builder("weatherapi.mapping", this, controller -> controller.mappings.sum(),
+				controller -> controller.mappingNanos.sum(), TimeUnit.NANOSECONDS).tag("type", "RealtimeWeatherDTO")
+				.register(registry);
 	}
 }
@@ -0,0 +1,35 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+
+public class RealtimeWeatherBatchItem {
+
+	@JsonProperty("location_code")
+	@NotBlank(message = "Location code must not be empty")
+	private String locationCode;
+
+	@JsonUnwrapped
+	@Valid
+	private RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+	public String getLocationCode() {
+		return locationCode;
+	}
+
+	public void setLocationCode(String locationCode) {
+		this.locationCode = locationCode;
+	}
+
+	public RealtimeWeather getRealtimeWeather() {
+		return realtimeWeather;
+	}
+
+	public void setRealtimeWeather(RealtimeWeather realtimeWeather) {
+		this.realtimeWeather = realtimeWeather;
+	}
+}
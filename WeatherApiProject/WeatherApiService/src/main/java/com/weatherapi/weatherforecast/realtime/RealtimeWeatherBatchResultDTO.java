@@ -0,0 +1,66 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class RealtimeWeatherBatchResultDTO {
+
+	private int index;
+
+	@JsonProperty("location_code")
+	private String locationCode;
+
+	private int status;
+
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	private List<String> errors = new ArrayList<>();
+
+	public RealtimeWeatherBatchResultDTO() {
+
+	}
+
+	public RealtimeWeatherBatchResultDTO(int index, String locationCode) {
+		super();
+		this.index = index;
+		this.locationCode = locationCode;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public String getLocationCode() {
+		return locationCode;
+	}
+
+	public void setLocationCode(String locationCode) {
+		this.locationCode = locationCode;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<String> errors) {
+		this.errors = errors;
+	}
+
+	public void addError(String message) {
+		this.errors.add(message);
+	}
+}
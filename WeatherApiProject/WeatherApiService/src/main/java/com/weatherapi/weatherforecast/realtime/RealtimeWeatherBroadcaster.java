@@ -0,0 +1,589 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationNotFoundException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pushes realtime weather updates to Server-Sent Events subscribers.
+ * <p>
+ * Committing threads only record which location codes changed. A small pool
+ * loads each changed reading once, through the cache, serializes it once and
+ * hands it to every subscriber of that code. Each subscriber keeps at most one
+ * pending update per location code, so rapid updates are coalesced and a slow
+ * client never holds more than its subscribed readings.
+ * <p>
+ * Events are written with non-blocking servlet I/O. A subscriber is flushed by
+ * one pool thread at a time, which writes at most a few events, and only while
+ * the connection can take them without blocking; a connection that cannot is
+ * resumed by the container once it can. No pool thread ever waits on a client.
+ * A subscriber whose connection stays unwritable for longer than the slow
+ * client threshold is disconnected; the client reconnects and starts again from
+ * the current readings.
+ */
+@Component
+public class RealtimeWeatherBroadcaster implements MeterBinder {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherBroadcaster.class);
+
+	private static final byte[] HEARTBEAT = ":heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+	private RealtimeWeatherService realtimeWeatherService;
+
+	private ObjectMapper objectMapper;
+
+	private int maxSubscribers;
+
+	private Duration timeout;
+
+	private int maxEventsPerFlush;
+
+	private long slowClientThresholdNanos;
+
+	private Map<String, Set<Subscription>> subscriptionsByCode = new ConcurrentHashMap<>();
+
+	private Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+	private AtomicInteger subscriberCount = new AtomicInteger();
+
+	private Set<String> changedCodes = ConcurrentHashMap.newKeySet();
+
+	private AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+	private ExecutorService executor;
+
+	private ScheduledExecutorService heartbeatScheduler;
+
+	public RealtimeWeatherBroadcaster(RealtimeWeatherService realtimeWeatherService, ObjectMapper objectMapper,
+			@Value("${weatherapi.realtime.stream.max-subscribers:10000}") int maxSubscribers,
+			@Value("${weatherapi.realtime.stream.timeout:30m}") Duration timeout,
+			@Value("${weatherapi.realtime.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+			@Value("${weatherapi.realtime.stream.threads:4}") int threads,
+			@Value("${weatherapi.realtime.stream.max-events-per-flush:16}") int maxEventsPerFlush,
+			@Value("${weatherapi.realtime.stream.slow-client-threshold:2s}") Duration slowClientThreshold) {
+		super();
+		this.realtimeWeatherService = realtimeWeatherService;
+		this.objectMapper = objectMapper;
+		this.maxSubscribers = maxSubscribers;
+		this.timeout = timeout;
+		this.maxEventsPerFlush = maxEventsPerFlush;
+		this.slowClientThresholdNanos = slowClientThreshold.toNanos();
+
+		// Every subscriber has at most one flush queued, plus the one dispatch task.
+		// A flush queued for a subscriber that has since left still takes a slot
+		// until it runs, so the queue can fill up; see scheduleFlush.
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(maxSubscribers + 1), new CustomizableThreadFactory("realtime-stream-"));
+		this.heartbeatScheduler = Executors
+				.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("realtime-stream-heartbeat-"));
+
+		long heartbeatMillis = heartbeatInterval.toMillis();
+
+		heartbeatScheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis,
+				TimeUnit.MILLISECONDS);
+
+		long slowClientMillis = slowClientThreshold.toMillis();
+
+		heartbeatScheduler.scheduleWithFixedDelay(this::disconnectSlowSubscribers, slowClientMillis,
+				slowClientMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Subscribes the request to the given location codes, starting with their
+	 * current readings, and streams the response asynchronously. Returns false,
+	 * without touching the response, when this node already serves the maximum
+	 * number of subscribers.
+	 */
+	public boolean subscribe(Collection<String> locationCodes, HttpServletRequest request,
+			HttpServletResponse response) throws LocationNotFoundException, IOException {
+
+		if (subscriberCount.incrementAndGet() > maxSubscribers) {
+
+			subscriberCount.decrementAndGet();
+
+			return false;
+		}
+
+		Subscription subscription = new Subscription(Set.copyOf(locationCodes));
+
+		subscriptions.add(subscription);
+
+		// Registered before the snapshot is read, so an update committed in between
+		// is dispatched to it too; the versions keep the newer of the two.
+		for (String locationCode : subscription.locationCodes) {
+
+			subscriptionsByCode.computeIfAbsent(locationCode, code -> ConcurrentHashMap.newKeySet())
+					.add(subscription);
+		}
+
+		Map<String, RealtimeWeather> realtimeWeathers;
+
+		try {
+
+			realtimeWeathers = realtimeWeatherService.getByLocationCodes(subscription.locationCodes);
+
+		} catch (RuntimeException ex) {
+
+			unsubscribe(subscription);
+
+			throw ex;
+		}
+
+		for (String locationCode : subscription.locationCodes) {
+
+			if (!realtimeWeathers.containsKey(locationCode)) {
+
+				unsubscribe(subscription);
+
+				throw new LocationNotFoundException("No location found with the given code: " + locationCode);
+			}
+		}
+
+		realtimeWeathers.values().forEach(realtimeWeather -> {
+
+			Update update = toUpdate(realtimeWeather);
+
+			if (update != null) {
+
+				subscription.offer(update);
+			}
+		});
+
+		try {
+
+			subscription.start(request, response);
+
+		} catch (IOException | RuntimeException ex) {
+
+			unsubscribe(subscription);
+
+			throw ex;
+		}
+
+		return true;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRealtimeWeatherUpdated(RealtimeWeatherUpdatedEvent event) {
+
+		boolean subscribed = false;
+
+		for (String locationCode : event.getLocationCodes()) {
+
+			if (subscriptionsByCode.containsKey(locationCode)) {
+
+				changedCodes.add(locationCode);
+				subscribed = true;
+			}
+		}
+
+		if (subscribed && dispatchScheduled.compareAndSet(false, true)) {
+
+			try {
+
+				executor.execute(this::dispatch);
+
+			} catch (RejectedExecutionException ex) {
+
+				// The changed codes stay recorded and go out with the next dispatch.
+				dispatchScheduled.set(false);
+
+				LOGGER.warn("Realtime weather dispatch rejected: the stream pool is saturated");
+			}
+		}
+	}
+
+	public int getSubscriberCount() {
+
+		return subscriptions.size();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		Gauge.builder("weatherapi.realtime.stream.subscribers", subscriptions, Set::size).register(registry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+
+		heartbeatScheduler.shutdownNow();
+		executor.shutdownNow();
+
+		subscriptions.forEach(Subscription::close);
+	}
+
+	private void dispatch() {
+
+		dispatchScheduled.set(false);
+
+		Set<String> locationCodes = new HashSet<>();
+
+		for (Iterator<String> iterator = changedCodes.iterator(); iterator.hasNext();) {
+
+			String locationCode = iterator.next();
+			iterator.remove();
+
+			Set<Subscription> subscribers = subscriptionsByCode.get(locationCode);
+
+			if (subscribers != null && !subscribers.isEmpty()) {
+
+				locationCodes.add(locationCode);
+			}
+		}
+
+		if (locationCodes.isEmpty()) {
+
+			return;
+		}
+
+		try {
+
+			// Trashed locations are left out, and their subscribers just get nothing.
+			realtimeWeatherService.getByLocationCodes(locationCodes).forEach((locationCode, realtimeWeather) -> {
+
+				Set<Subscription> subscribers = subscriptionsByCode.get(locationCode);
+				Update update = toUpdate(realtimeWeather);
+
+				if (subscribers != null && update != null) {
+
+					subscribers.forEach(subscription -> subscription.offer(update));
+				}
+			});
+
+		} catch (RuntimeException ex) {
+
+			LOGGER.error(ex.getMessage(), ex);
+		}
+	}
+
+	private void heartbeat() {
+
+		subscriptions.forEach(Subscription::heartbeat);
+	}
+
+	private void disconnectSlowSubscribers() {
+
+		long now = System.nanoTime();
+
+		subscriptions.forEach(subscription -> {
+
+			long blockedSince = subscription.blockedSince;
+
+			if (blockedSince != 0 && now - blockedSince > slowClientThresholdNanos) {
+
+				LOGGER.warn("Disconnecting slow realtime weather subscriber");
+
+				subscription.close();
+			}
+		});
+	}
+
+	private void unsubscribe(Subscription subscription) {
+
+		if (!subscriptions.remove(subscription)) {
+
+			return;
+		}
+
+		subscriberCount.decrementAndGet();
+
+		for (String locationCode : subscription.locationCodes) {
+
+			subscriptionsByCode.computeIfPresent(locationCode, (code, subscribers) -> {
+
+				subscribers.remove(subscription);
+
+				return subscribers.isEmpty() ? null : subscribers;
+			});
+		}
+	}
+
+	private Update toUpdate(RealtimeWeather realtimeWeather) {
+
+		try {
+
+			long version = realtimeWeather.getLastUpdatedDtm() != null ? realtimeWeather.getLastUpdatedDtm().getTime()
+					: 0;
+
+			String json = objectMapper.writeValueAsString(RealtimeWeatherMapper.toDTO(realtimeWeather));
+
+			String event = "event:realtime\nid:" + realtimeWeather.getLocationCode() + "-" + version + "\ndata:"
+					+ json + "\n\n";
+
+			return new Update(realtimeWeather.getLocationCode(), version, event.getBytes(StandardCharsets.UTF_8));
+
+		} catch (JsonProcessingException ex) {
+
+			LOGGER.error(ex.getMessage(), ex);
+
+			return null;
+		}
+	}
+
+	private record Update(String locationCode, long version, byte[] event) {
+	}
+
+	private class Subscription implements WriteListener, AsyncListener {
+
+		private Set<String> locationCodes;
+
+		private Map<String, Update> pending = new ConcurrentHashMap<>();
+
+		private Map<String, Long> sentVersions = new ConcurrentHashMap<>();
+
+		// Set until the response is started, so nothing is flushed before then.
+		private AtomicBoolean flushScheduled = new AtomicBoolean(true);
+
+		private AtomicBoolean closed = new AtomicBoolean();
+
+		private volatile boolean heartbeatDue;
+
+		private volatile AsyncContext asyncContext;
+
+		private volatile ServletOutputStream out;
+
+		// Written by the flushing thread only.
+		private volatile boolean unflushed;
+
+		// When the connection last refused more data, or 0 while it takes it.
+		private volatile long blockedSince;
+
+		Subscription(Set<String> locationCodes) {
+			this.locationCodes = locationCodes;
+		}
+
+		void start(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+			response.setStatus(HttpServletResponse.SC_OK);
+			response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+			response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+			asyncContext = request.startAsync(request, response);
+			asyncContext.setTimeout(timeout.toMillis());
+			asyncContext.addListener(this);
+
+			out = response.getOutputStream();
+
+			// The container calls onWritePossible once the listener is set, which
+			// schedules the first flush.
+			flushScheduled.set(false);
+			out.setWriteListener(this);
+		}
+
+		void offer(Update update) {
+
+			pending.merge(update.locationCode(), update,
+					(current, offered) -> offered.version() >= current.version() ? offered : current);
+
+			scheduleFlush();
+		}
+
+		void heartbeat() {
+
+			heartbeatDue = true;
+
+			scheduleFlush();
+		}
+
+		void close() {
+
+			unsubscribe(this);
+
+			if (closed.compareAndSet(false, true) && asyncContext != null) {
+
+				try {
+
+					asyncContext.complete();
+
+				} catch (IllegalStateException ex) {
+
+					// Already completed by the container.
+					LOGGER.debug(ex.getMessage(), ex);
+				}
+			}
+		}
+
+		@Override
+		public void onWritePossible() {
+
+			scheduleFlush();
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+
+			// The client went away.
+			LOGGER.debug(ex.getMessage(), ex);
+
+			close();
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+
+			unsubscribe(this);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+
+			close();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+
+			unsubscribe(this);
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+
+		}
+
+		private void scheduleFlush() {
+
+			if (flushScheduled.compareAndSet(false, true)) {
+
+				try {
+
+					executor.execute(this::flush);
+
+				} catch (RejectedExecutionException ex) {
+
+					LOGGER.warn("Disconnecting realtime weather subscriber: the stream pool is saturated");
+
+					flushScheduled.set(false);
+
+					close();
+				}
+			}
+		}
+
+		// Runs on one pool thread at a time: the flag stays set until the drain is
+		// over, so the version check and the write cannot race with another flush.
+		private void flush() {
+
+			if (closed.get()) {
+
+				return;
+			}
+
+			boolean ready;
+
+			try {
+
+				ready = out.isReady();
+
+				int sent = 0;
+
+				for (Iterator<String> iterator = pending.keySet().iterator(); ready && iterator.hasNext()
+						&& sent < maxEventsPerFlush;) {
+
+					String locationCode = iterator.next();
+					Update update = pending.remove(locationCode);
+
+					if (update == null || update.version() <= sentVersions.getOrDefault(locationCode, -1L)) {
+
+						continue;
+					}
+
+					out.write(update.event());
+
+					sentVersions.put(locationCode, update.version());
+					sent++;
+					unflushed = true;
+
+					ready = out.isReady();
+				}
+
+				if (ready && heartbeatDue) {
+
+					heartbeatDue = false;
+
+					if (sent == 0) {
+
+						out.write(HEARTBEAT);
+
+						unflushed = true;
+
+						ready = out.isReady();
+					}
+				}
+
+				if (ready && unflushed) {
+
+					out.flush();
+
+					unflushed = false;
+
+					ready = out.isReady();
+				}
+
+			} catch (IOException | IllegalStateException ex) {
+
+				// The client went away.
+				LOGGER.debug(ex.getMessage(), ex);
+
+				close();
+
+				return;
+			}
+
+			// A connection that is not ready calls onWritePossible once it is.
+			blockedSince = ready ? 0 : System.nanoTime();
+
+			flushScheduled.set(false);
+
+			// Updates offered during the drain, and an onWritePossible call made
+			// during it, found the flag still set and did not schedule a flush of
+			// their own.
+			if ((!pending.isEmpty() || heartbeatDue || unflushed) && out.isReady()) {
+
+				scheduleFlush();
+			}
+		}
+	}
+}
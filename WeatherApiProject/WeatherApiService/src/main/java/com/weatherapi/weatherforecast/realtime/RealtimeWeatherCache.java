@@ -0,0 +1,85 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.weatherapi.weatherforecast.RecentWrites;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RealtimeWeatherCache implements MeterBinder {
+
+	private Cache<String, RealtimeWeather> cache;
+
+	private RecentWrites recentWrites;
+
+	public RealtimeWeatherCache(@Value("${weatherapi.realtime.cache.maximum-size:10000}") long maximumSize,
+			@Value("${weatherapi.realtime.cache.expire-after-write:5m}") Duration expireAfterWrite,
+			RecentWrites recentWrites) {
+		super();
+		this.recentWrites = recentWrites;
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats()
+				.build();
+	}
+
+	public RealtimeWeather get(String locationCode, Function<String, RealtimeWeather> loader) {
+
+		return cache.get(locationCode, code -> recentWrites.read(code, () -> loader.apply(code)));
+	}
+
+	/**
+	 * Returns the readings for the given codes, loading every code that is not
+	 * cached with a single call to the loader. Codes without a reading are left
+	 * out of the result and are not cached.
+	 */
+	public Map<String, RealtimeWeather> getAll(Collection<String> locationCodes,
+			Function<Set<String>, Map<String, RealtimeWeather>> loader) {
+
+		return cache.getAll(locationCodes, codes -> {
+
+			Set<String> codesToLoad = Set.copyOf(codes);
+
+			return recentWrites.readAll(codesToLoad, () -> loader.apply(codesToLoad));
+		});
+	}
+
+	/**
+	 * Drops the cached reading after a write. The next load reads the primary
+	 * until the read-your-writes window has passed.
+	 */
+	public void evict(String locationCode) {
+
+		recentWrites.record(locationCode);
+
+		cache.invalidate(locationCode);
+	}
+
+	public long size() {
+
+		return cache.estimatedSize();
+	}
+
+	public CacheStats stats() {
+
+		return cache.stats();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		CaffeineCacheMetrics.monitor(registry, cache, "realtime_weather");
+	}
+}
@@ -0,0 +1,67 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import jakarta.transaction.Transactional;
+
+@Timed("weatherapi.repository.jdbc")
+@Repository
+public class RealtimeWeatherJdbcRepository {
+
+	private static final String UPSERT_SQL = "INSERT INTO realtime_weather"
+			+ " (location_code, temperature, humidity, precipitation, wind_speed, status, last_updated_dtm)"
+			+ " VALUES (?, ?, ?, ?, ?, ?, ?)"
+			+ " ON DUPLICATE KEY UPDATE temperature = VALUES(temperature), humidity = VALUES(humidity),"
+			+ " precipitation = VALUES(precipitation), wind_speed = VALUES(wind_speed), status = VALUES(status),"
+			+ " last_updated_dtm = VALUES(last_updated_dtm)";
+
+	// Inserts or updates in one round trip, and only for an existing untrashed
+	// location: no row is affected otherwise.
+	private static final String UPSERT_UNTRASHED_SQL = "INSERT INTO realtime_weather"
+			+ " (location_code, temperature, humidity, precipitation, wind_speed, status, last_updated_dtm)"
+			+ " SELECT code, ?, ?, ?, ?, ?, ? FROM locations WHERE code = ? AND trashed = false"
+			+ " ON DUPLICATE KEY UPDATE temperature = VALUES(temperature), humidity = VALUES(humidity),"
+			+ " precipitation = VALUES(precipitation), wind_speed = VALUES(wind_speed), status = VALUES(status),"
+			+ " last_updated_dtm = VALUES(last_updated_dtm)";
+
+	private JdbcTemplate jdbcTemplate;
+
+	public RealtimeWeatherJdbcRepository(JdbcTemplate jdbcTemplate) {
+		super();
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Returns false when there is no untrashed location with the reading's code.
+	 */
+	public boolean upsertIfLocationUntrashed(RealtimeWeather realtimeWeather) {
+
+		return jdbcTemplate.update(UPSERT_UNTRASHED_SQL, realtimeWeather.getTemperature(),
+				realtimeWeather.getHumidity(), realtimeWeather.getPrecipitation(), realtimeWeather.getWindSpeed(),
+				realtimeWeather.getStatus(), new Timestamp(realtimeWeather.getLastUpdatedDtm().getTime()),
+				realtimeWeather.getLocationCode()) > 0;
+	}
+
+	@Transactional
+	public void upsertAll(List<RealtimeWeather> realtimeWeathers) {
+
+		jdbcTemplate.batchUpdate(UPSERT_SQL, realtimeWeathers, realtimeWeathers.size(), (ps, realtimeWeather) -> {
+
+			ps.setString(1, realtimeWeather.getLocationCode());
+			ps.setInt(2, realtimeWeather.getTemperature());
+			ps.setInt(3, realtimeWeather.getHumidity());
+			ps.setInt(4, realtimeWeather.getPrecipitation());
+			ps.setInt(5, realtimeWeather.getWindSpeed());
+			ps.setString(6, realtimeWeather.getStatus());
+			ps.setTimestamp(7, new Timestamp(realtimeWeather.getLastUpdatedDtm().getTime()));
+		});
+	}
+}
@@ -0,0 +1,156 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only file of buffered readings, one JSON object per line, so the
+ * write-behind buffer can be rebuilt after a crash. It is rewritten with the
+ * readings still pending after every flush.
+ */
+class RealtimeWeatherJournal implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherJournal.class);
+
+	private Path path;
+
+	private ObjectMapper objectMapper;
+
+	private boolean fsync;
+
+	private FileChannel channel;
+
+	RealtimeWeatherJournal(Path path, ObjectMapper objectMapper, boolean fsync) throws IOException {
+		this.path = path;
+		this.objectMapper = objectMapper;
+		this.fsync = fsync;
+		this.channel = open();
+	}
+
+	/**
+	 * Returns the latest journaled reading per location code. A torn last line,
+	 * left by a crash in the middle of a write, is skipped.
+	 */
+	Map<String, RealtimeWeather> read() throws IOException {
+
+		Map<String, RealtimeWeather> realtimeWeathers = new LinkedHashMap<>();
+
+		for (String line : Files.readAllLines(path)) {
+
+			if (line.isBlank()) {
+
+				continue;
+			}
+
+			try {
+
+				RealtimeWeather realtimeWeather = objectMapper.readValue(line, Entry.class).toRealtimeWeather();
+
+				realtimeWeathers.put(realtimeWeather.getLocationCode(), realtimeWeather);
+
+			} catch (JsonProcessingException ex) {
+
+				LOGGER.warn("Skipping unreadable journal entry in {}: {}", path, ex.getOriginalMessage());
+			}
+		}
+
+		return realtimeWeathers;
+	}
+
+	void append(Collection<RealtimeWeather> realtimeWeathers) throws IOException {
+
+		channel.write(ByteBuffer.wrap(encode(realtimeWeathers)));
+
+		if (fsync) {
+
+			channel.force(false);
+		}
+	}
+
+	void rewrite(Collection<RealtimeWeather> realtimeWeathers) throws IOException {
+
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (FileChannel temporaryChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+			temporaryChannel.write(ByteBuffer.wrap(encode(realtimeWeathers)));
+			temporaryChannel.force(true);
+		}
+
+		channel.close();
+
+		Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		channel = open();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		channel.close();
+	}
+
+	private FileChannel open() throws IOException {
+
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	private byte[] encode(Collection<RealtimeWeather> realtimeWeathers) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(realtimeWeathers.size() * 128);
+
+		for (RealtimeWeather realtimeWeather : realtimeWeathers) {
+
+			out.write(objectMapper.writeValueAsBytes(Entry.of(realtimeWeather)));
+			out.write('\n');
+		}
+
+		return out.toByteArray();
+	}
+
+	private record Entry(String locationCode, int temperature, int humidity, int precipitation, int windSpeed,
+			String status, long lastUpdated) {
+
+		static Entry of(RealtimeWeather realtimeWeather) {
+
+			return new Entry(realtimeWeather.getLocationCode(), realtimeWeather.getTemperature(),
+					realtimeWeather.getHumidity(), realtimeWeather.getPrecipitation(), realtimeWeather.getWindSpeed(),
+					realtimeWeather.getStatus(), realtimeWeather.getLastUpdatedDtm().getTime());
+		}
+
+		RealtimeWeather toRealtimeWeather() {
+
+			RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+			realtimeWeather.setLocationCode(locationCode);
+			realtimeWeather.setTemperature(temperature);
+			realtimeWeather.setHumidity(humidity);
+			realtimeWeather.setPrecipitation(precipitation);
+			realtimeWeather.setWindSpeed(windSpeed);
+			realtimeWeather.setStatus(status);
+			realtimeWeather.setLastUpdatedDtm(new Date(lastUpdated));
+
+			return realtimeWeather;
+		}
+	}
+}
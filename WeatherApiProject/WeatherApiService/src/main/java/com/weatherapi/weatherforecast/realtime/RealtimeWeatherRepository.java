@@ -1,15 +1,30 @@
 package com.weatherapi.weatherforecast.realtime;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.weatherapi.weatherforecast.common.RealtimeWeather;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface RealtimeWeatherRepository extends CrudRepository<RealtimeWeather, String> {
 
-	@Query("SELECT r FROM RealtimeWeather r WHERE r.location.countryCode = ?1 AND r.location.cityName = ?2")
+	@Transactional(readOnly = true)
+	@EntityGraph(attributePaths = "location")
+	@Query("SELECT r FROM RealtimeWeather r WHERE r.location.countryCode = ?1 AND r.location.cityName = ?2"
+			+ " AND r.location.trashed = false")
 	public RealtimeWeather findByCountryCodeAndCity(String countryCode, String city);
 
+	@Transactional(readOnly = true)
+	@EntityGraph(attributePaths = "location")
 	@Query("SELECT r FROM RealtimeWeather r WHERE r.id = ?1 AND r.location.trashed = false")
 	public RealtimeWeather findByLocationCode(String locationCode);
+
+	@Transactional(readOnly = true)
+	@EntityGraph(attributePaths = "location")
+	@Query("SELECT r FROM RealtimeWeather r WHERE r.id IN ?1 AND r.location.trashed = false")
+	public List<RealtimeWeather> findByLocationCodes(Collection<String> locationCodes);
 }
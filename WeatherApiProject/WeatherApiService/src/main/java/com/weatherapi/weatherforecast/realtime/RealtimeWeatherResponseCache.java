@@ -0,0 +1,167 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Ready-to-send UTF-8 JSON bodies of realtime weather readings, by location
+ * code. An entry is served only while its ETag matches the reading being
+ * returned, so a new reading, or a renamed location, is serialized again on
+ * its first request. The gzip body is compressed once, on the first request
+ * that accepts it.
+ */
+@Component
+public class RealtimeWeatherResponseCache implements MeterBinder {
+
+	private Cache<String, Response> cache;
+
+	private StatsCounter statsCounter = new ConcurrentStatsCounter();
+
+	private ObjectMapper objectMapper;
+
+	public RealtimeWeatherResponseCache(ObjectMapper objectMapper,
+			@Value("${weatherapi.realtime.response-cache.maximum-size:10000}") long maximumSize,
+			@Value("${weatherapi.realtime.response-cache.expire-after-access:5m}") Duration expireAfterAccess) {
+		super();
+		this.objectMapper = objectMapper;
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(expireAfterAccess)
+				.recordStats(() -> statsCounter).build();
+	}
+
+	/**
+	 * Returns the cached body for the reading with the given ETag, serializing
+	 * the mapped DTO when there is none or it was made from another reading.
+	 */
+	public Response get(String locationCode, String eTag, Supplier<RealtimeWeatherDTO> dto) {
+
+		// Read through the map view, which records no stats: an entry with a stale
+		// ETag counts as a miss.
+		Response response = cache.asMap().get(locationCode);
+
+		if (response != null && response.eTag.equals(eTag)) {
+
+			statsCounter.recordHits(1);
+
+			return response;
+		}
+
+		statsCounter.recordMisses(1);
+
+		return put(locationCode, eTag, dto.get());
+	}
+
+	/**
+	 * Serializes and caches the body of a reading that was just written, so the
+	 * next read does not have to.
+	 */
+	public Response put(String locationCode, String eTag, RealtimeWeatherDTO dto) {
+
+		Response response = new Response(eTag, serialize(dto));
+
+		cache.put(locationCode, response);
+
+		return response;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRealtimeWeatherUpdated(RealtimeWeatherUpdatedEvent event) {
+
+		cache.invalidateAll(event.getLocationCodes());
+	}
+
+	public long size() {
+
+		return cache.estimatedSize();
+	}
+
+	public CacheStats stats() {
+
+		return statsCounter.snapshot();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		CaffeineCacheMetrics.monitor(registry, cache, "realtime_weather_response");
+	}
+
+	private byte[] serialize(RealtimeWeatherDTO dto) {
+
+		try {
+
+			return objectMapper.writeValueAsBytes(dto);
+
+		} catch (JsonProcessingException ex) {
+
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	public static class Response {
+
+		private String eTag;
+
+		private byte[] json;
+
+		private volatile byte[] gzip;
+
+		Response(String eTag, byte[] json) {
+			this.eTag = eTag;
+			this.json = json;
+		}
+
+		public byte[] getJson() {
+			return json;
+		}
+
+		public byte[] getGzip() {
+
+			byte[] compressed = gzip;
+
+			// Racing threads may both compress; either result is the same body.
+			if (compressed == null) {
+
+				compressed = gzip(json);
+				gzip = compressed;
+			}
+
+			return compressed;
+		}
+
+		private static byte[] gzip(byte[] bytes) {
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+
+			try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+
+				gzipOut.write(bytes);
+
+			} catch (IOException ex) {
+
+				throw new UncheckedIOException(ex);
+			}
+
+			return out.toByteArray();
+		}
+	}
+}
@@ -1,45 +1,109 @@
 package com.weatherapi.weatherforecast.realtime;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.weatherapi.weatherforecast.common.Location;
 import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationIndex;
 import com.weatherapi.weatherforecast.location.LocationNotFoundException;
 import com.weatherapi.weatherforecast.location.LocationRepository;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+@Timed("weatherapi.service")
 @Service
 public class RealtimeWeatherService {
 
 	private RealtimeWeatherRepository realtimeWeatherRepository;
 	private LocationRepository locationRepository;
+	private RealtimeWeatherCache realtimeWeatherCache;
+	private LocationIndex locationIndex;
+	private RealtimeWeatherJdbcRepository realtimeWeatherJdbcRepository;
+	private RealtimeWeatherWriteBehindBuffer writeBehindBuffer;
+	private ApplicationEventPublisher eventPublisher;
+	private int batchChunkSize;
+	private double nearestMaxDistanceKm;
 
 	public RealtimeWeatherService(RealtimeWeatherRepository realtimeWeatherRepository,
-			LocationRepository locationRepository) {
+			LocationRepository locationRepository, RealtimeWeatherCache realtimeWeatherCache,
+			LocationIndex locationIndex, RealtimeWeatherJdbcRepository realtimeWeatherJdbcRepository,
+			RealtimeWeatherWriteBehindBuffer writeBehindBuffer, ApplicationEventPublisher eventPublisher,
+			@Value("${weatherapi.realtime.batch.chunk-size:500}") int batchChunkSize,
+			@Value("${weatherapi.location.nearest.max-distance-km:100}") double nearestMaxDistanceKm) {
 		super();
 		this.realtimeWeatherRepository = realtimeWeatherRepository;
 		this.locationRepository = locationRepository;
+		this.realtimeWeatherCache = realtimeWeatherCache;
+		this.locationIndex = locationIndex;
+		this.realtimeWeatherJdbcRepository = realtimeWeatherJdbcRepository;
+		this.writeBehindBuffer = writeBehindBuffer;
+		this.eventPublisher = eventPublisher;
+		this.batchChunkSize = batchChunkSize;
+		this.nearestMaxDistanceKm = nearestMaxDistanceKm;
 	}
 
+	/**
+	 * Resolves a geolocated client to the nearest location when its coordinates
+	 * are known, and otherwise, or when no location is near enough, to the
+	 * location with the same country code and city name.
+	 */
 	public RealtimeWeather getByLocation(Location location) throws LocationNotFoundException {
 
-		String countryCode = location.getCountryCode();
-		String cityName = location.getCityName();
+		String locationCode = null;
 
-		RealtimeWeather realtimeWeather = realtimeWeatherRepository.findByCountryCodeAndCity(countryCode, cityName);
+		if (location.getLatitude() != null && location.getLongitude() != null) {
 
-		if (realtimeWeather == null) {
+			locationCode = locationIndex.findNearestCode(location.getLatitude(), location.getLongitude(),
+					nearestMaxDistanceKm);
+		}
+
+		if (locationCode == null) {
+
+			locationCode = locationIndex.findCode(location.getCountryCode(), location.getCityName());
+		}
+
+		if (locationCode == null) {
 
 			throw new LocationNotFoundException("No location found with the given country code and city name");
 		}
 
-		return realtimeWeather;
+		return getByLocationCode(locationCode);
+	}
+
+	public RealtimeWeather getByCoordinates(double latitude, double longitude) throws LocationNotFoundException {
+
+		String locationCode = locationIndex.findNearestCode(latitude, longitude, nearestMaxDistanceKm);
+
+		if (locationCode == null) {
+
+			throw new LocationNotFoundException("No location found within " + nearestMaxDistanceKm + " km");
+		}
+
+		return getByLocationCode(locationCode);
 	}
 
 	public RealtimeWeather getByLocationCode(String locationCode) throws LocationNotFoundException {
 
-		RealtimeWeather realtimeWeather = realtimeWeatherRepository.findByLocationCode(locationCode);
+		RealtimeWeather buffered = writeBehindBuffer.get(locationCode);
+
+		if (buffered != null) {
+
+			return buffered;
+		}
+
+		RealtimeWeather realtimeWeather = realtimeWeatherCache.get(locationCode,
+				realtimeWeatherRepository::findByLocationCode);
 
 		if (realtimeWeather == null) {
 
@@ -49,29 +113,174 @@ public class RealtimeWeatherService {
 		return realtimeWeather;
 	}
 
+	/**
+	 * Returns the readings for the given codes from the write-behind buffer or
+	 * the cache, with one query for the rest. Codes without an untrashed location
+	 * are left out.
+	 */
+	public Map<String, RealtimeWeather> getByLocationCodes(Collection<String> locationCodes) {
+
+		Map<String, RealtimeWeather> realtimeWeathers = new HashMap<>();
+		List<String> unbufferedCodes = new ArrayList<>(locationCodes.size());
+
+		for (String locationCode : locationCodes) {
+
+			RealtimeWeather buffered = writeBehindBuffer.get(locationCode);
+
+			if (buffered != null) {
+
+				realtimeWeathers.put(locationCode, buffered);
+
+			} else {
+
+				unbufferedCodes.add(locationCode);
+			}
+		}
+
+		if (!unbufferedCodes.isEmpty()) {
+
+			realtimeWeathers.putAll(realtimeWeatherCache.getAll(unbufferedCodes, this::findByLocationCodes));
+		}
+
+		return realtimeWeathers;
+	}
+
+	private Map<String, RealtimeWeather> findByLocationCodes(Set<String> locationCodes) {
+
+		Map<String, RealtimeWeather> realtimeWeathers = new HashMap<>();
+
+		for (RealtimeWeather realtimeWeather : realtimeWeatherRepository.findByLocationCodes(locationCodes)) {
+
+			realtimeWeathers.put(realtimeWeather.getLocationCode(), realtimeWeather);
+		}
+
+		return realtimeWeathers;
+	}
+
+	/**
+	 * Writes the reading with a single upsert statement, or hands it to the
+	 * write-behind buffer. The returned reading carries its location from the
+	 * location index, so the database is only read for locations missing from it.
+	 */
 	public RealtimeWeather update(String locationCode, RealtimeWeather realtimeWeather)
 			throws LocationNotFoundException {
 
-		Location location = locationRepository.findByCode(locationCode);
+		realtimeWeather.setLocationCode(locationCode);
+		realtimeWeather.setLastUpdatedDtm(new Date());
 
-		if (location == null) {
+		Location location = locationIndex.findLocation(locationCode);
 
-			throw new LocationNotFoundException("No location found with the given code: " + locationCode);
+		if (writeBehindBuffer.isEnabled()) {
+
+			if (location == null) {
+
+				location = locationRepository.findByCode(locationCode);
+			}
+
+			if (location == null) {
+
+				throw new LocationNotFoundException("No location found with the given code: " + locationCode);
+			}
+
+			// Readers are served from the buffer as soon as it has the reading.
+			realtimeWeather.setLocation(location);
+
+			writeBehindBuffer.accept(List.of(realtimeWeather));
+
+		} else {
+
+			if (!realtimeWeatherJdbcRepository.upsertIfLocationUntrashed(realtimeWeather)) {
+
+				throw new LocationNotFoundException("No location found with the given code: " + locationCode);
+			}
+
+			if (location == null) {
+
+				location = locationRepository.findByCode(locationCode);
+			}
 		}
 
-		if (location.getRealtimeWeather() == null) {
-			
-			location.setRealtimeWeather(realtimeWeather);
-			
-			Location updatedLocation = locationRepository.save(location);
-			
-			return updatedLocation.getRealtimeWeather();
+		if (location != null) {
+
+			realtimeWeather.setLocation(location);
 		}
 
-		realtimeWeather.setLocation(location);
+		realtimeWeatherCache.evict(locationCode);
 
-		realtimeWeather.setLastUpdatedDtm(new Date());
+		eventPublisher.publishEvent(new RealtimeWeatherUpdatedEvent(Set.of(locationCode)));
+
+		return realtimeWeather;
+	}
+
+	/**
+	 * Upserts the given readings in chunks, with one location lookup and one JDBC
+	 * batch, or one write-behind buffer append, per chunk. Returns the codes of the locations that were updated;
+	 * readings for unknown or trashed locations are skipped.
+	 */
+	public Set<String> updateAll(List<RealtimeWeather> realtimeWeathers) {
+
+		Set<String> updatedCodes = new HashSet<>();
+
+		for (int from = 0; from < realtimeWeathers.size(); from += batchChunkSize) {
+
+			List<RealtimeWeather> chunk = realtimeWeathers.subList(from,
+					Math.min(from + batchChunkSize, realtimeWeathers.size()));
+
+			Set<String> codes = new HashSet<>();
+
+			chunk.forEach(realtimeWeather -> codes.add(realtimeWeather.getLocationCode()));
+
+			Set<String> foundCodes = new HashSet<>(locationRepository.findUntrashedCodes(codes));
+
+			if (foundCodes.isEmpty()) {
+
+				continue;
+			}
+
+			Date lastUpdatedDtm = new Date();
+			List<RealtimeWeather> realtimeWeathersToWrite = new ArrayList<>(chunk.size());
+
+			for (RealtimeWeather realtimeWeather : chunk) {
+
+				if (foundCodes.contains(realtimeWeather.getLocationCode())) {
+
+					realtimeWeather.setLastUpdatedDtm(lastUpdatedDtm);
+					realtimeWeathersToWrite.add(realtimeWeather);
+				}
+			}
+
+			if (writeBehindBuffer.isEnabled()) {
+
+				// Served from the buffer until the next flush, so they need their
+				// location just like the readings update() buffers.
+				for (RealtimeWeather realtimeWeather : realtimeWeathersToWrite) {
+
+					Location location = locationIndex.findLocation(realtimeWeather.getLocationCode());
+
+					if (location == null) {
+
+						location = locationRepository.findByCode(realtimeWeather.getLocationCode());
+					}
+
+					realtimeWeather.setLocation(location);
+				}
+
+				writeBehindBuffer.accept(realtimeWeathersToWrite);
+
+			} else {
+
+				realtimeWeatherJdbcRepository.upsertAll(realtimeWeathersToWrite);
+			}
+
+			foundCodes.forEach(realtimeWeatherCache::evict);
+			updatedCodes.addAll(foundCodes);
+		}
+
+		if (!updatedCodes.isEmpty()) {
+
+			eventPublisher.publishEvent(new RealtimeWeatherUpdatedEvent(updatedCodes));
+		}
 
-		return realtimeWeatherRepository.save(realtimeWeather);
+		return updatedCodes;
 	}
 }
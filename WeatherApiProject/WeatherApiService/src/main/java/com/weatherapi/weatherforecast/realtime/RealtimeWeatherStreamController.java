@@ -0,0 +1,85 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.weatherapi.weatherforecast.ApiOutcomes;
+import com.weatherapi.weatherforecast.SampledLogger;
+import com.weatherapi.weatherforecast.location.LocationNotFoundException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/v1/realtime/stream")
+public class RealtimeWeatherStreamController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherStreamController.class);
+
+	private static final SampledLogger LOCATIONS_NOT_FOUND = new SampledLogger(LOGGER, 100);
+
+	private RealtimeWeatherBroadcaster broadcaster;
+
+	private int maxLocationCodes;
+
+	private ApiOutcomes apiOutcomes;
+
+	public RealtimeWeatherStreamController(RealtimeWeatherBroadcaster broadcaster, ApiOutcomes apiOutcomes,
+			@Value("${weatherapi.realtime.stream.max-location-codes:100}") int maxLocationCodes) {
+		super();
+		this.broadcaster = broadcaster;
+		this.maxLocationCodes = maxLocationCodes;
+		this.apiOutcomes = apiOutcomes;
+	}
+
+	// Once subscribed, the broadcaster writes the response asynchronously, so
+	// nothing is returned for Spring MVC to write.
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<Void> streamRealtimeWeathers(@RequestParam("codes") List<String> codes,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+		Set<String> locationCodes = new LinkedHashSet<>();
+
+		codes.stream().map(String::trim).filter(code -> !code.isEmpty()).forEach(locationCodes::add);
+
+		if (locationCodes.isEmpty() || locationCodes.size() > maxLocationCodes) {
+
+			apiOutcomes.record(ApiOutcomes.VALIDATION_FAILURE);
+
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+
+			if (!broadcaster.subscribe(locationCodes, request, response)) {
+
+				LOGGER.warn("Realtime weather stream rejected: subscriber limit reached");
+
+				return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+			}
+
+			return null;
+
+		} catch (LocationNotFoundException ex) {
+
+			apiOutcomes.record(ApiOutcomes.LOCATION_NOT_FOUND);
+
+			LOCATIONS_NOT_FOUND.warn(ex);
+
+			return ResponseEntity.notFound().build();
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.util.Set;
+
+public class RealtimeWeatherUpdatedEvent {
+
+	private Set<String> locationCodes;
+
+	public RealtimeWeatherUpdatedEvent(Set<String> locationCodes) {
+		super();
+		this.locationCodes = locationCodes;
+	}
+
+	public Set<String> getLocationCodes() {
+		return locationCodes;
+	}
+}
@@ -0,0 +1,290 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind mode for realtime weather updates. The latest reading
+ * per location code is kept in memory and served to readers, and a background
+ * flusher upserts the buffer in JDBC batches every flush interval, or sooner
+ * once the flush threshold is reached.
+ * <p>
+ * Without a journal, a crash loses the readings accepted since the last flush.
+ * With one, every accepted reading is appended to it first, optionally with an
+ * fsync, and the journal is replayed on startup. Replayed readings get the
+ * indexed copy of their location; those whose location is gone or trashed are
+ * dropped.
+ */
+@Component
+public class RealtimeWeatherWriteBehindBuffer implements MeterBinder {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherWriteBehindBuffer.class);
+
+	private RealtimeWeatherJdbcRepository realtimeWeatherJdbcRepository;
+
+	private RealtimeWeatherCache realtimeWeatherCache;
+
+	private LocationIndex locationIndex;
+
+	private boolean enabled;
+
+	private int flushThreshold;
+
+	private boolean drainOnShutdown;
+
+	private RealtimeWeatherJournal journal;
+
+	private Map<String, RealtimeWeather> pending = new ConcurrentHashMap<>();
+
+	private ReentrantLock journalLock = new ReentrantLock();
+
+	private ReentrantLock flushLock = new ReentrantLock();
+
+	private AtomicBoolean flushRequested = new AtomicBoolean();
+
+	private ScheduledExecutorService flusher;
+
+	public RealtimeWeatherWriteBehindBuffer(RealtimeWeatherJdbcRepository realtimeWeatherJdbcRepository,
+			RealtimeWeatherCache realtimeWeatherCache, LocationIndex locationIndex, ObjectMapper objectMapper,
+			@Value("${weatherapi.realtime.write-behind.enabled:false}") boolean enabled,
+			@Value("${weatherapi.realtime.write-behind.flush-interval:5s}") Duration flushInterval,
+			@Value("${weatherapi.realtime.write-behind.flush-threshold:500}") int flushThreshold,
+			@Value("${weatherapi.realtime.write-behind.drain-on-shutdown:true}") boolean drainOnShutdown,
+			@Value("${weatherapi.realtime.write-behind.journal:}") String journalPath,
+			@Value("${weatherapi.realtime.write-behind.journal-fsync:true}") boolean journalFsync) throws IOException {
+		super();
+		this.realtimeWeatherJdbcRepository = realtimeWeatherJdbcRepository;
+		this.realtimeWeatherCache = realtimeWeatherCache;
+		this.locationIndex = locationIndex;
+		this.enabled = enabled;
+		this.flushThreshold = flushThreshold;
+		this.drainOnShutdown = drainOnShutdown;
+
+		if (!enabled) {
+
+			return;
+		}
+
+		if (!journalPath.isEmpty()) {
+
+			journal = new RealtimeWeatherJournal(Path.of(journalPath), objectMapper, journalFsync);
+
+			replay(journal.read().values());
+
+			LOGGER.info("Recovered {} buffered realtime weather readings from {}", pending.size(), journalPath);
+		}
+
+		flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("realtime-write-behind-"));
+
+		long flushMillis = flushInterval.toMillis();
+
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private void replay(Collection<RealtimeWeather> realtimeWeathers) {
+
+		for (RealtimeWeather realtimeWeather : realtimeWeathers) {
+
+			Location location = locationIndex.findLocation(realtimeWeather.getLocationCode());
+
+			if (location == null) {
+
+				LOGGER.warn("Dropping journaled realtime weather reading of missing or trashed location {}",
+						realtimeWeather.getLocationCode());
+
+				continue;
+			}
+
+			realtimeWeather.setLocation(location);
+
+			pending.put(realtimeWeather.getLocationCode(), realtimeWeather);
+		}
+	}
+
+	public boolean isEnabled() {
+
+		return enabled;
+	}
+
+	public RealtimeWeather get(String locationCode) {
+
+		return pending.get(locationCode);
+	}
+
+	public void accept(Collection<RealtimeWeather> realtimeWeathers) {
+
+		if (journal != null) {
+
+			journalLock.lock();
+
+			try {
+
+				journal.append(realtimeWeathers);
+
+				realtimeWeathers.forEach(this::put);
+
+			} catch (IOException ex) {
+
+				throw new UncheckedIOException(ex);
+
+			} finally {
+
+				journalLock.unlock();
+			}
+
+		} else {
+
+			realtimeWeathers.forEach(this::put);
+		}
+
+		if (pending.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+
+			flusher.execute(this::flushQuietly);
+		}
+	}
+
+	/**
+	 * Upserts every pending reading and returns how many were written. A reading
+	 * replaced while the flush was running stays pending for the next one.
+	 */
+	public int flush() {
+
+		flushLock.lock();
+
+		try {
+
+			flushRequested.set(false);
+
+			if (pending.isEmpty()) {
+
+				return 0;
+			}
+
+			List<RealtimeWeather> flushing = new ArrayList<>(pending.values());
+
+			for (int from = 0; from < flushing.size(); from += flushThreshold) {
+
+				realtimeWeatherJdbcRepository
+						.upsertAll(flushing.subList(from, Math.min(from + flushThreshold, flushing.size())));
+			}
+
+			for (RealtimeWeather realtimeWeather : flushing) {
+
+				String locationCode = realtimeWeather.getLocationCode();
+
+				// RealtimeWeather.equals compares location codes only, so compare
+				// identities to keep a reading that arrived during the flush.
+				pending.computeIfPresent(locationCode, (code, current) -> current == realtimeWeather ? null : current);
+
+				realtimeWeatherCache.evict(locationCode);
+			}
+
+			if (journal != null) {
+
+				journalLock.lock();
+
+				try {
+
+					journal.rewrite(pending.values());
+
+				} catch (IOException ex) {
+
+					// The old journal still holds everything pending; replaying flushed
+					// readings only writes them again.
+					LOGGER.error(ex.getMessage(), ex);
+
+				} finally {
+
+					journalLock.unlock();
+				}
+			}
+
+			return flushing.size();
+
+		} finally {
+
+			flushLock.unlock();
+		}
+	}
+
+	public int size() {
+
+		return pending.size();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		Gauge.builder("weatherapi.realtime.writebehind.pending", pending, Map::size).register(registry);
+	}
+
+	@PreDestroy
+	public void shutdown() throws Exception {
+
+		if (!enabled) {
+
+			return;
+		}
+
+		flusher.shutdown();
+		flusher.awaitTermination(30, TimeUnit.SECONDS);
+
+		if (drainOnShutdown) {
+
+			LOGGER.info("Draining {} buffered realtime weather readings", pending.size());
+
+			flushQuietly();
+		}
+
+		if (journal != null) {
+
+			journal.close();
+		}
+	}
+
+	private void put(RealtimeWeather realtimeWeather) {
+
+		pending.put(realtimeWeather.getLocationCode(), realtimeWeather);
+	}
+
+	private void flushQuietly() {
+
+		try {
+
+			flush();
+
+		} catch (RuntimeException ex) {
+
+			LOGGER.error("Write-behind flush failed, {} readings still pending", pending.size(), ex);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version instead of running it.
+
+CREATE TABLE locations (
+	code VARCHAR(12) NOT NULL,
+	city_name VARCHAR(128) NOT NULL,
+	region_name VARCHAR(128),
+	country_name VARCHAR(64) NOT NULL,
+	country_code VARCHAR(2) NOT NULL,
+	enabled BIT NOT NULL,
+	trashed BIT NOT NULL,
+	PRIMARY KEY (code)
+) ENGINE = InnoDB;
+
+CREATE TABLE realtime_weather (
+	location_code VARCHAR(12) NOT NULL,
+	temperature INTEGER NOT NULL,
+	humidity INTEGER NOT NULL,
+	precipitation INTEGER NOT NULL,
+	wind_speed INTEGER NOT NULL,
+	status VARCHAR(50),
+	last_updated_dtm DATETIME(6),
+	PRIMARY KEY (location_code),
+	CONSTRAINT fk_realtime_weather_location FOREIGN KEY (location_code) REFERENCES locations (code)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- RealtimeWeatherRepository.findByCountryCodeAndCity: equality on all three
+-- columns. InnoDB appends the primary key, so the join to realtime_weather on
+-- code is resolved from the index alone.
+CREATE INDEX idx_locations_country_city ON locations (country_code, city_name, trashed);
+
+-- LocationRepository.findUntrashed and findUntrashedAfter: keyset pages read
+-- untrashed codes in order without a filesort.
+CREATE INDEX idx_locations_trashed_code ON locations (trashed, code);
+
+-- RealtimeWeatherRepository.findByLocationCode, findByCode and
+-- findUntrashedCodes are primary key lookups and need no extra index.
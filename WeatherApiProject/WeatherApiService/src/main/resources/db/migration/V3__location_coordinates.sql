@@ -0,0 +1,5 @@
+-- Optional coordinates for nearest-location lookups. They are searched in the
+-- in-memory LocationIndex, so no database index is needed.
+ALTER TABLE locations ADD COLUMN latitude DOUBLE;
+
+ALTER TABLE locations ADD COLUMN longitude DOUBLE;
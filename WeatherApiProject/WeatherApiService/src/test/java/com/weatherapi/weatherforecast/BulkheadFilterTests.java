@@ -0,0 +1,74 @@
+package com.weatherapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+
+public class BulkheadFilterTests {
+
+	private BulkheadFilter filter = new BulkheadFilter(new ApiOutcomes(), 1, Duration.ZERO, 1, Duration.ZERO);
+
+	@Test
+	public void testFullLocationBulkheadRejectsOnlyLocationRequests() throws Exception {
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		MockHttpServletResponse realtime = new MockHttpServletResponse();
+		MockHttpServletResponse stream = new MockHttpServletResponse();
+
+		FilterChain holdingChain = (request, response) -> {
+
+			filter.doFilter(new MockHttpServletRequest("GET", "/v1/locations/JKT"), rejected, (req, res) -> {
+			});
+			filter.doFilter(new MockHttpServletRequest("GET", "/v1/realtime/JKT"), realtime, (req, res) -> {
+			});
+			filter.doFilter(new MockHttpServletRequest("GET", "/v1/realtime/stream"), stream, (req, res) -> {
+			});
+		};
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/v1/locations"), new MockHttpServletResponse(),
+				holdingChain);
+
+		assertThat(rejected.getStatus()).isEqualTo(503);
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(realtime.getStatus()).isEqualTo(200);
+		assertThat(stream.getStatus()).isEqualTo(200);
+
+		MockHttpServletResponse afterwards = new MockHttpServletResponse();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/v1/locations/JKT"), afterwards, (req, res) -> {
+		});
+
+		assertThat(afterwards.getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void testStreamedResponseHoldsPermitUntilComplete() throws Exception {
+
+		MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/v1/locations");
+		streaming.setAsyncSupported(true);
+
+		filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+		MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/v1/locations/JKT"), whileStreaming, (req, res) -> {
+		});
+
+		assertThat(whileStreaming.getStatus()).isEqualTo(503);
+
+		streaming.getAsyncContext().complete();
+
+		MockHttpServletResponse afterStreaming = new MockHttpServletResponse();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/v1/locations/JKT"), afterStreaming, (req, res) -> {
+		});
+
+		assertThat(afterStreaming.getStatus()).isEqualTo(200);
+	}
+}
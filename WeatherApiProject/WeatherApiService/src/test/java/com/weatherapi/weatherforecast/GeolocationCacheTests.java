@@ -0,0 +1,121 @@
+package com.weatherapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class GeolocationCacheTests {
+
+	private static final GeolocationResult JAKARTA = new GeolocationResult("ID", "Indonesia", "Jakarta", "Jakarta");
+
+	@Test
+	public void testExactAddressIsCached() {
+
+		GeolocationCache cache = new GeolocationCache(true, 100, 32, 128);
+		CountingLookup lookup = new CountingLookup(JAKARTA);
+
+		cache.get("203.189.88.161", lookup);
+		cache.get(" 203.189.88.161 ", lookup);
+		cache.get("203.189.88.162", lookup);
+
+		assertThat(lookup.calls.get()).isEqualTo(2);
+		assertThat(cache.stats().hitCount()).isEqualTo(1);
+		assertThat(cache.stats().missCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testAddressesShareNetworkPrefix() {
+
+		GeolocationCache cache = new GeolocationCache(true, 100, 24, 48);
+		CountingLookup lookup = new CountingLookup(JAKARTA);
+
+		cache.get("203.189.88.1", lookup);
+		cache.get("203.189.88.254", lookup);
+		cache.get("203.189.89.1", lookup);
+		cache.get("2404:c0:1::1", lookup);
+		cache.get("2404:c0:1:ffff::1", lookup);
+
+		assertThat(lookup.calls.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void testAddressesEmbeddingIPv4AreKeyedByIt() {
+
+		GeolocationCache cache = new GeolocationCache(true, 100, 24, 48);
+		CountingLookup lookup = new CountingLookup(JAKARTA);
+
+		// Two IPv4-mapped clients from different /24s, and two Teredo clients
+		// (192.0.2.45 and 198.51.100.7) behind the same Teredo server.
+		cache.get("::ffff:203.189.88.1", lookup);
+		cache.get("::ffff:203.189.89.1", lookup);
+		cache.get("2001:0:4136:e378:8000:63bf:3fff:fdd2", lookup);
+		cache.get("2001:0:4136:e378:8000:63bf:39cc:9bf8", lookup);
+
+		assertThat(lookup.calls.get()).isEqualTo(4);
+
+		// Keyed like the plain IPv4 address in the same /24.
+		cache.get("203.189.88.254", lookup);
+		cache.get("::ffff:cbbd:5902", lookup);
+		cache.get("2002:cbbd:5801::1", lookup);
+
+		assertThat(lookup.calls.get()).isEqualTo(4);
+	}
+
+	@Test
+	public void testFailedStatusIsNegativelyCached() throws Exception {
+
+		GeolocationDatabase database = Mockito.mock(GeolocationDatabase.class);
+		Mockito.when(database.lookup("abc")).thenReturn(GeolocationResult.INVALID_IP_ADDRESS);
+
+		GeolocationService service = new GeolocationService(database, new GeolocationCache(true, 100, 32, 128));
+
+		assertThatThrownBy(() -> service.getLocation("abc")).isInstanceOf(GeolocationException.class);
+		assertThatThrownBy(() -> service.getLocation("abc")).isInstanceOf(GeolocationException.class);
+
+		Mockito.verify(database, Mockito.times(1)).lookup("abc");
+	}
+
+	@Test
+	public void testDisabledCacheAlwaysLooksUp() throws Exception {
+
+		GeolocationDatabase database = Mockito.mock(GeolocationDatabase.class);
+		Mockito.when(database.lookup("203.189.88.161")).thenReturn(JAKARTA);
+
+		GeolocationCache cache = new GeolocationCache(false, 100, 32, 128);
+		GeolocationService service = new GeolocationService(database, cache);
+
+		Location first = service.getLocation("203.189.88.161");
+		Location second = service.getLocation("203.189.88.161");
+
+		assertThat(first.getCountryCode()).isEqualTo("ID");
+		assertThat(second.getCityName()).isEqualTo("Jakarta");
+		assertThat(cache.size()).isZero();
+		Mockito.verify(database, Mockito.times(2)).lookup("203.189.88.161");
+	}
+
+	private static class CountingLookup implements Function<String, GeolocationResult> {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private final GeolocationResult result;
+
+		CountingLookup(GeolocationResult result) {
+			this.result = result;
+		}
+
+		@Override
+		public GeolocationResult apply(String ipAddress) {
+
+			calls.incrementAndGet();
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package com.weatherapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ip2location.IP2Location;
+import com.ip2location.IPResult;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GeolocationDatabaseTests {
+
+	@TempDir
+	static Path tempDir;
+
+	static Path ipv4Only;
+
+	static Path ipv4AndIPv6;
+
+	static Path withCoordinates;
+
+	@BeforeAll
+	public static void writeDatabases() throws IOException {
+
+		List<Range> ipv4Ranges = List.of(new Range("0.0.0.0", "-", "-", "-", "-"),
+				new Range("108.30.178.0", "US", "United States of America", "New York", "New York City"),
+				new Range("108.30.179.0", "-", "-", "-", "-"),
+				new Range("203.189.88.0", "ID", "Indonesia", "Jakarta", "Jakarta"),
+				new Range("203.189.89.0", "-", "-", "-", "-"),
+				new Range("255.255.255.255", "-", "-", "-", "-"));
+
+		List<Range> ipv6Ranges = List.of(new Range("::", "-", "-", "-", "-"),
+				new Range("2404:c0::", "ID", "Indonesia", "Jakarta", "Jakarta"),
+				new Range("2404:c1::", "-", "-", "-", "-"),
+				new Range("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "-", "-", "-", "-"));
+
+		ipv4Only = tempDir.resolve("IP2LOCATION-DB3.BIN");
+		ipv4AndIPv6 = tempDir.resolve("IP2LOCATION-DB3.IPV6.BIN");
+
+		Files.write(ipv4Only, writeDatabase(3, ipv4Ranges, List.of()));
+		Files.write(ipv4AndIPv6, writeDatabase(3, ipv4Ranges, ipv6Ranges));
+
+		List<Range> ipv4RangesWithCoordinates = List.of(new Range("0.0.0.0", "-", "-", "-", "-"),
+				new Range("203.189.88.0", "ID", "Indonesia", "Jakarta", "Jakarta", -6.2146f, 106.8451f),
+				new Range("203.189.89.0", "-", "-", "-", "-"),
+				new Range("255.255.255.255", "-", "-", "-", "-"));
+
+		withCoordinates = tempDir.resolve("IP2LOCATION-DB5.BIN");
+
+		Files.write(withCoordinates, writeDatabase(5, ipv4RangesWithCoordinates, List.of()));
+	}
+
+	@Test
+	public void testLookupMatchesIP2Location() throws IOException {
+
+		assertLookupsMatch(ipv4Only, "203.189.88.161", "203.189.88.0", "203.189.88.255", "203.189.89.0",
+				"108.30.178.78", "1.1.1.1", "255.255.255.255", "0.0.0.0", " 203.189.88.161 ", "::ffff:203.189.88.161",
+				"2002:cbbd:58a1::", "abc", "", "256.1.1.1", "1.2.3.4.5", "2404:c0::1");
+	}
+
+	@Test
+	public void testIPv6LookupMatchesIP2Location() throws IOException {
+
+		assertLookupsMatch(ipv4AndIPv6, "2404:c0::1", "2404:c0:ffff::", "2404:c1::", "2404:bf:ffff::", "::1",
+				"ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "203.189.88.161", "2404:c0::zz", "2404:::1");
+	}
+
+	@Test
+	public void testLookupResolvesCity() throws IOException {
+
+		GeolocationDatabase database = GeolocationDatabase.load(ipv4Only);
+
+		GeolocationResult result = database.lookup("203.189.88.161");
+
+		assertThat(result.isOK()).isTrue();
+		assertThat(result.getCountryShort()).isEqualTo("ID");
+		assertThat(result.getCountryLong()).isEqualTo("Indonesia");
+		assertThat(result.getRegion()).isEqualTo("Jakarta");
+		assertThat(result.getCity()).isEqualTo("Jakarta");
+
+		assertThat(database.getIPv4RangeCount()).isEqualTo(5);
+		assertThat(database.lookup("2404:c0::1").getStatus()).isEqualTo("IPV6_NOT_SUPPORTED");
+		assertThat(database.lookup("abc").getStatus()).isEqualTo("INVALID_IP_ADDRESS");
+
+		// Only literal addresses are accepted: no inet_aton shorthand and no DNS resolution.
+		assertThat(database.lookup("1.2.3").getStatus()).isEqualTo("INVALID_IP_ADDRESS");
+		assertThat(database.lookup("localhost").getStatus()).isEqualTo("INVALID_IP_ADDRESS");
+	}
+
+	@Test
+	public void testLookupResolvesCoordinatesFromDB5() throws IOException {
+
+		assertLookupsMatch(withCoordinates, "203.189.88.161", "203.189.89.1");
+
+		GeolocationResult result = GeolocationDatabase.load(withCoordinates).lookup("203.189.88.161");
+
+		assertThat(result.hasCoordinates()).isTrue();
+		assertThat(result.getLatitude()).isEqualTo(-6.2146f);
+		assertThat(result.getLongitude()).isEqualTo(106.8451f);
+		assertThat(result.getCity()).isEqualTo("Jakarta");
+
+		assertThat(GeolocationDatabase.load(ipv4Only).lookup("203.189.88.161").hasCoordinates()).isFalse();
+	}
+
+	@Test
+	public void testGeolocationServiceThrowsOnFailedStatus() throws IOException {
+
+		GeolocationService service = new GeolocationService(GeolocationDatabase.load(ipv4Only),
+				new GeolocationCache(false, 0, 32, 128));
+
+		assertThatThrownBy(() -> service.getLocation("abc"))
+				.isInstanceOf(GeolocationException.class).hasMessageContaining("INVALID_IP_ADDRESS");
+	}
+
+	private void assertLookupsMatch(Path path, String... ipAddresses) throws IOException {
+
+		IP2Location ipLocator = new IP2Location();
+
+		ipLocator.Open(path.toString());
+
+		GeolocationDatabase database = GeolocationDatabase.load(path);
+
+		for (String ipAddress : ipAddresses) {
+
+			IPResult expected = ipLocator.IPQuery(ipAddress);
+			GeolocationResult actual = database.lookup(ipAddress);
+
+			if ("OK".equals(expected.getStatus())) {
+
+				assertThat(actual.getStatus()).as(ipAddress).isEqualTo("OK");
+				assertThat(actual.getCountryShort()).as(ipAddress).isEqualTo(expected.getCountryShort());
+				assertThat(actual.getCountryLong()).as(ipAddress).isEqualTo(expected.getCountryLong());
+				assertThat(actual.getRegion()).as(ipAddress).isEqualTo(expected.getRegion());
+				assertThat(actual.getCity()).as(ipAddress).isEqualTo(expected.getCity());
+
+				if (actual.hasCoordinates()) {
+
+					assertThat(actual.getLatitude()).as(ipAddress).isEqualTo(expected.getLatitude());
+					assertThat(actual.getLongitude()).as(ipAddress).isEqualTo(expected.getLongitude());
+				}
+
+			} else {
+
+				assertThat(actual.isOK()).as(ipAddress).isFalse();
+			}
+		}
+
+		ipLocator.Close();
+	}
+
+	// Writes a DB3 (country, region, city) or DB5 (DB3 plus latitude and longitude) BIN file.
+	private static byte[] writeDatabase(int dbType, List<Range> ipv4Ranges, List<Range> ipv6Ranges) {
+
+		int columns = dbType == 5 ? 6 : 4;
+		int ipv4ColumnSize = columns * 4;
+		int ipv6ColumnSize = 16 + (columns - 1) * 4;
+
+		int ipv4Base = 64;
+		int ipv6Base = ipv4Base + ipv4Ranges.size() * ipv4ColumnSize;
+		int stringsBase = ipv6Base + ipv6Ranges.size() * ipv6ColumnSize;
+
+		Map<String, Integer> strings = new LinkedHashMap<>();
+		ByteBuffer stringData = ByteBuffer.allocate(4096);
+
+		ByteBuffer buffer = ByteBuffer.allocate(stringsBase + 4096).order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.put(0, (byte) dbType);
+		buffer.put(1, (byte) columns);
+		buffer.put(2, (byte) 24);
+		buffer.put(3, (byte) 1);
+		buffer.put(4, (byte) 1);
+		buffer.putInt(5, ipv4Ranges.size());
+		buffer.putInt(9, ipv4Base + 1);
+		buffer.putInt(13, ipv6Ranges.size());
+		buffer.putInt(17, ipv6Ranges.isEmpty() ? 0 : ipv6Base + 1);
+		buffer.put(29, (byte) 1);
+
+		for (int i = 0; i < ipv4Ranges.size(); i++) {
+
+			Range range = ipv4Ranges.get(i);
+			int offset = ipv4Base + i * ipv4ColumnSize;
+
+			buffer.putInt(offset, (int) GeolocationDatabase.parseIPv4(range.ipFrom, 0, range.ipFrom.length()));
+			putColumns(buffer, offset + 4, columns, range, strings, stringData, stringsBase);
+		}
+
+		for (int i = 0; i < ipv6Ranges.size(); i++) {
+
+			Range range = ipv6Ranges.get(i);
+			int offset = ipv6Base + i * ipv6ColumnSize;
+			long[] ipFrom = GeolocationDatabase.parseIPv6(range.ipFrom);
+
+			buffer.putLong(offset, ipFrom[1]);
+			buffer.putLong(offset + 8, ipFrom[0]);
+			putColumns(buffer, offset + 16, columns, range, strings, stringData, stringsBase);
+		}
+
+		buffer.position(stringsBase);
+		buffer.put(stringData.array(), 0, stringData.position());
+		buffer.putInt(31, buffer.position());
+
+		byte[] bytes = new byte[buffer.position()];
+		buffer.get(0, bytes);
+
+		return bytes;
+	}
+
+	private static void putColumns(ByteBuffer buffer, int offset, int columns, Range range,
+			Map<String, Integer> strings, ByteBuffer stringData, int stringsBase) {
+
+		buffer.putInt(offset, string(range.countryShort + "|" + range.countryLong, strings, stringData, stringsBase));
+		buffer.putInt(offset + 4, string(range.region, strings, stringData, stringsBase));
+		buffer.putInt(offset + 8, string(range.city, strings, stringData, stringsBase));
+
+		if (columns == 6) {
+
+			buffer.putFloat(offset + 12, range.latitude);
+			buffer.putFloat(offset + 16, range.longitude);
+		}
+	}
+
+	private static int string(String value, Map<String, Integer> strings, ByteBuffer stringData, int stringsBase) {
+
+		return strings.computeIfAbsent(value, key -> {
+
+			int start = stringData.position();
+
+			String[] parts = key.split("\\|");
+
+			for (int i = 0; i < parts.length; i++) {
+
+				byte[] bytes = parts[i].getBytes(StandardCharsets.UTF_8);
+
+				// Country columns point at the 2-letter code, with the full name 3 bytes later.
+				if (i > 0) {
+
+					stringData.position(start + 3);
+				}
+
+				stringData.put((byte) bytes.length);
+				stringData.put(bytes);
+			}
+
+			return stringsBase + start;
+		});
+	}
+
+	private static class Range {
+
+		private final String ipFrom;
+		private final String countryShort;
+		private final String countryLong;
+		private final String region;
+		private final String city;
+		private final float latitude;
+		private final float longitude;
+
+		Range(String ipFrom, String countryShort, String countryLong, String region, String city) {
+			this(ipFrom, countryShort, countryLong, region, city, Float.NaN, Float.NaN);
+		}
+
+		Range(String ipFrom, String countryShort, String countryLong, String region, String city, float latitude,
+				float longitude) {
+			this.ipFrom = ipFrom;
+			this.countryShort = countryShort;
+			this.countryLong = countryLong;
+			this.region = region;
+			this.city = city;
+			this.latitude = latitude;
+			this.longitude = longitude;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.weatherapi.weatherforecast;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the data source so tests can count the statements an operation
+ * executes through {@link net.ttddyy.dsproxy.QueryCountHolder}.
+ */
+@TestConfiguration
+public class QueryCountConfiguration {
+
+	@Bean
+	static BeanPostProcessor countingDataSourcePostProcessor() {
+
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+				if (bean instanceof DataSource dataSource) {
+
+					return ProxyDataSourceBuilder.create(dataSource).countQuery().build();
+				}
+
+				return bean;
+			}
+		};
+	}
+}
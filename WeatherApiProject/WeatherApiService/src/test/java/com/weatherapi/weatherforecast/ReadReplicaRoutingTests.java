@@ -0,0 +1,105 @@
+package com.weatherapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.location.LocationService;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Routes between two in-memory H2 databases: the primary, migrated by the
+ * application, and a replica migrated here, whose lag is read from a table.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=" + ReadReplicaRoutingTests.PRIMARY_URL,
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"weatherapi.datasource.replica-urls=" + ReadReplicaRoutingTests.REPLICA_URL,
+		"weatherapi.datasource.replica-lag-query=SELECT seconds FROM replica_lag",
+		"weatherapi.datasource.replica-max-lag=5s", "weatherapi.datasource.replica-check-interval=1h" })
+public class ReadReplicaRoutingTests {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	private static JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	@Autowired
+	LocationService locationService;
+
+	@Autowired
+	ReadReplicaRoutingDataSource routingDataSource;
+
+	@Autowired
+	HikariDataSource primaryDataSource;
+
+	@BeforeAll
+	public static void setUpReplica() {
+
+		Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+
+		replica.execute("CREATE TABLE replica_lag (seconds INTEGER NOT NULL)");
+		replica.update("INSERT INTO replica_lag VALUES (0)");
+
+		for (String code : new String[] { "RPL_READ", "RPL_LAG" }) {
+
+			replica.update("INSERT INTO locations (code, city_name, region_name, country_name, country_code, enabled, trashed) "
+					+ "VALUES (?, 'Replica City', 'Region', 'Indonesia', 'ID', true, false)", code);
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+
+		replica.update("UPDATE replica_lag SET seconds = 0");
+
+		routingDataSource.checkReplicas();
+	}
+
+	@Test
+	public void testReadOnlyReadGoesToReplica() {
+
+		assertThat(routingDataSource.getHealthyReplicaCount()).isEqualTo(1);
+		assertThat(locationService.get("RPL_READ")).isNotNull();
+	}
+
+	@Test
+	public void testWriteGoesToPrimaryAndIsReadBackFromIt() {
+
+		Location location = new Location("Primary City", "Region", "Indonesia", "ID");
+		location.setCode("PRM_NEW");
+		location.setEnabled(true);
+
+		locationService.add(location);
+
+		JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+
+		assertThat(primary.queryForObject("SELECT COUNT(*) FROM locations WHERE code = 'PRM_NEW'", Integer.class))
+				.isEqualTo(1);
+		assertThat(replica.queryForObject("SELECT COUNT(*) FROM locations WHERE code = 'PRM_NEW'", Integer.class))
+				.isZero();
+
+		assertThat(locationService.get("PRM_NEW")).isNotNull();
+	}
+
+	@Test
+	public void testLaggingReplicaFallsBackToPrimary() {
+
+		replica.update("UPDATE replica_lag SET seconds = 60");
+
+		routingDataSource.checkReplicas();
+
+		assertThat(routingDataSource.getHealthyReplicaCount()).isZero();
+		assertThat(locationService.get("RPL_LAG")).isNull();
+	}
+}
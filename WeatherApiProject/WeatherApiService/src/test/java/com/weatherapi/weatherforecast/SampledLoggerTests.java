@@ -0,0 +1,71 @@
+package com.weatherapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+public class SampledLoggerTests {
+
+	private Logger logger = (Logger) LoggerFactory.getLogger(SampledLoggerTests.class);
+
+	private ListAppender<ILoggingEvent> appender;
+
+	@BeforeEach
+	public void setUp() {
+
+		appender = new ListAppender<>();
+		appender.start();
+
+		logger.addAppender(appender);
+	}
+
+	@AfterEach
+	public void tearDown() {
+
+		logger.detachAppender(appender);
+		logger.setLevel(null);
+	}
+
+	@Test
+	public void testLogsOneInRateWithoutStackTrace() {
+
+		logger.setLevel(Level.INFO);
+
+		SampledLogger sampledLogger = new SampledLogger(logger, 10);
+
+		for (int i = 0; i < 25; i++) {
+
+			sampledLogger.warn(new IllegalStateException("No location found"));
+		}
+
+		assertThat(sampledLogger.getCount()).isEqualTo(25);
+		assertThat(appender.list).hasSize(3);
+		assertThat(appender.list).allMatch(event -> event.getLevel() == Level.WARN && event.getThrowableProxy() == null);
+		assertThat(appender.list.get(2).getFormattedMessage())
+				.isEqualTo("No location found (21 occurrences so far, logging 1 in 10)");
+	}
+
+	@Test
+	public void testLogsEveryOccurrenceAtDebug() {
+
+		logger.setLevel(Level.DEBUG);
+
+		SampledLogger sampledLogger = new SampledLogger(logger, 10);
+
+		for (int i = 0; i < 5; i++) {
+
+			sampledLogger.warn(new IllegalStateException("No location found"));
+		}
+
+		assertThat(appender.list).hasSize(5);
+		assertThat(appender.list).allMatch(event -> event.getThrowableProxy() != null);
+	}
+}
@@ -0,0 +1,57 @@
+package com.weatherapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Applies the Flyway migrations to an in-memory H2 database in MySQL mode and
+ * checks the query plans of the lookup queries against the indexes they were
+ * designed for.
+ */
+@JdbcTest(properties = { "spring.datasource.url=jdbc:h2:mem:explain;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=" })
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public class SchemaMigrationTests {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void testFindByCountryCodeAndCityUsesCountryCityIndex() {
+
+		String plan = explain("SELECT r.* FROM realtime_weather r JOIN locations l ON l.code = r.location_code"
+				+ " WHERE l.country_code = 'ID' AND l.city_name = 'Jakarta' AND l.trashed = false");
+
+		assertThat(plan).contains("IDX_LOCATIONS_COUNTRY_CITY: TRASHED = FALSE").contains("AND COUNTRY_CODE = 'ID'")
+				.contains("AND CITY_NAME = 'Jakarta'");
+	}
+
+	@Test
+	public void testFindUntrashedAfterUsesTrashedCodeIndex() {
+
+		String plan = explain(
+				"SELECT l.* FROM locations l WHERE l.trashed = false AND l.code > 'JKT' ORDER BY l.code LIMIT 100");
+
+		assertThat(plan).contains("IDX_LOCATIONS_TRASHED_CODE: TRASHED = FALSE").contains("AND CODE > 'JKT'");
+	}
+
+	@Test
+	public void testFindByLocationCodeUsesPrimaryKeys() {
+
+		String plan = explain("SELECT r.* FROM realtime_weather r JOIN locations l ON l.code = r.location_code"
+				+ " WHERE r.location_code = 'JKT' AND l.trashed = false");
+
+		assertThat(plan).contains("PRIMARY_KEY").doesNotContain("tableScan");
+	}
+
+	private String explain(String sql) {
+
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+	}
+}
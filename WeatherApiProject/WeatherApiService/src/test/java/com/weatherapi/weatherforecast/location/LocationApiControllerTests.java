@@ -2,6 +2,7 @@ package com.weatherapi.weatherforecast.location;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -10,12 +11,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.ApiOutcomes;
 import com.weatherapi.weatherforecast.common.Location;
 
 import org.junit.jupiter.api.Test;
@@ -23,10 +27,12 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(LocationApiController.class)
+@Import(ApiOutcomes.class)
 public class LocationApiControllerTests {
 
 	private static final String END_POINT_PATH = "/v1/locations";
@@ -40,6 +46,9 @@ public class LocationApiControllerTests {
 	@MockBean
 	LocationService locationService;
 
+	@MockBean
+	LocationImporter locationImporter;
+
 	@Test
 	public void testAddShouldReturn400BadRequest() throws Exception {
 
@@ -76,7 +85,7 @@ public class LocationApiControllerTests {
 	@Test
 	public void testListShouldReturn204NoContent() throws Exception {
 
-		Mockito.when(locationService.list()).thenReturn(Collections.emptyList());
+		Mockito.when(locationService.list(null, 100)).thenReturn(Collections.emptyList());
 
 		mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isNoContent()).andDo(print());
 	}
@@ -102,11 +111,68 @@ public class LocationApiControllerTests {
 		location2.setCountryName("India");
 		location2.setEnabled(true);
 
-		Mockito.when(locationService.list()).thenReturn(List.of(location1, location2));
+		Mockito.when(locationService.list(null, 100)).thenReturn(List.of(location1, location2));
 
 		mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isOk()).andExpect(jsonPath("$[0].code", is("JKT")))
 				.andExpect(jsonPath("$[0].city_name", is("Jakarta"))).andExpect(jsonPath("$[1].code", is("DELHI_IN")))
-				.andExpect(jsonPath("$[1].city_name", is("New Delhi"))).andDo(print());
+				.andExpect(jsonPath("$[1].city_name", is("New Delhi")))
+				.andExpect(header().doesNotExist("Link")).andDo(print());
+	}
+
+	@Test
+	public void testListShouldReturnLinkToNextPage() throws Exception {
+
+		Location location1 = new Location("Bandung", "West Java", "Indonesia", "ID");
+		location1.setCode("BDG");
+
+		Location location2 = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location2.setCode("JKT");
+
+		Mockito.when(locationService.list("ABC", 2)).thenReturn(List.of(location1, location2));
+
+		mockMvc.perform(get(END_POINT_PATH).param("cursor", "ABC").param("size", "2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[1].code", is("JKT")))
+				.andExpect(header().string("Link", "<http://localhost/v1/locations?cursor=JKT&size=2>; rel=\"next\""))
+				.andDo(print());
+	}
+
+	@Test
+	public void testListShouldReturn400BadRequestForPageSizeOverLimit() throws Exception {
+
+		mockMvc.perform(get(END_POINT_PATH).param("size", "1001")).andExpect(status().isBadRequest())
+				.andDo(print());
+	}
+
+	@Test
+	public void testStreamShouldWriteNDJSON() throws Exception {
+
+		Location location1 = new Location("Bandung", "West Java", "Indonesia", "ID");
+		location1.setCode("BDG");
+
+		Location location2 = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location2.setCode("JKT");
+
+		Mockito.doAnswer(invocation -> {
+
+			Consumer<Location> consumer = invocation.getArgument(0);
+
+			consumer.accept(location1);
+			consumer.accept(location2);
+
+			return null;
+
+		}).when(locationService).forEach(Mockito.any());
+
+		MvcResult mvcResult = mockMvc.perform(get(END_POINT_PATH).accept("application/x-ndjson"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson")).andDo(print());
+
+		String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+
+		assertThat(lines).hasSize(2);
+		assertThat(objectMapper.readValue(lines[1], Location.class).getCode()).isEqualTo("JKT");
 	}
 
 	@Test
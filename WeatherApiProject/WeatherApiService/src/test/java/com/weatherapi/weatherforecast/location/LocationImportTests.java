@@ -0,0 +1,157 @@
+package com.weatherapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.weatherapi.weatherforecast.common.Location;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Imports and exports locations through the API, against an in-memory H2
+ * database in MySQL mode, with chunks of two rows.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:import;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"weatherapi.location.import.chunk-size=2" })
+@AutoConfigureMockMvc
+public class LocationImportTests {
+
+	private static final String END_POINT_PATH = "/v1/locations";
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@SpyBean
+	LocationService locationService;
+
+	@Test
+	public void testImportCsvReportsInvalidRowsAndImportsTheRest() throws Exception {
+
+		String csv = """
+				country_code,code,city_name,region_name,country_name,enabled
+				ID,CSV_SBY,Surabaya,East Java,Indonesia,true
+				ID,X,Too Short,East Java,Indonesia,true
+				ID,CSV_MLG,Malang,,Indonesia,false
+
+				ID,CSV_BAD,Bad Flag,East Java,Indonesia,maybe
+				ID,CSV_KDR,Kediri,East Java,Indonesia,true
+				""";
+
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("text/csv").content(csv))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(3))
+				.andExpect(jsonPath("$.failed").value(2)).andExpect(jsonPath("$.errors[0].line").value(3))
+				.andExpect(jsonPath("$.errors[0].code").value("X"))
+				.andExpect(jsonPath("$.errors[0].errors[0]").value("Location code must have 3-12 characters"))
+				.andExpect(jsonPath("$.errors[1].line").value(6)).andExpect(jsonPath("$.errors_truncated").value(false));
+
+		Location malang = locationService.get("CSV_MLG");
+
+		assertThat(malang.getCityName()).isEqualTo("Malang");
+		assertThat(malang.getRegionName()).isNull();
+		assertThat(malang.isEnabled()).isFalse();
+		assertThat(locationService.get("CSV_KDR")).isNotNull();
+	}
+
+	@Test
+	public void testImportCsvSavesFailedChunkRowByRow() throws Exception {
+
+		Mockito.doThrow(new DataIntegrityViolationException("Duplicate entry")).when(locationService).addAll(
+				Mockito.argThat(locations -> locations.stream().anyMatch(l -> "CSV_FAIL".equals(l.getCode()))));
+
+		String csv = """
+				code,city_name,region_name,country_name,country_code,enabled
+				CSV_BLT,Blitar,East Java,Indonesia,ID,true
+				CSV_FAIL,Madiun,East Java,Indonesia,ID,true
+				CSV_PBL,"Probolinggo
+				City","East Java, Indonesia",Indonesia,ID,true
+				CSV_JBR,Jember,East Java,Indonesia,ID,maybe
+				""";
+
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("text/csv").content(csv))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(2))
+				.andExpect(jsonPath("$.failed").value(2)).andExpect(jsonPath("$.errors[0].line").value(3))
+				.andExpect(jsonPath("$.errors[0].code").value("CSV_FAIL"))
+				.andExpect(jsonPath("$.errors[0].errors[0]").value("Location could not be saved"))
+				.andExpect(jsonPath("$.errors[1].line").value(6));
+
+		assertThat(locationService.get("CSV_BLT")).isNotNull();
+		assertThat(locationService.get("CSV_PBL").getCityName()).isEqualTo("Probolinggo\nCity");
+		assertThat(locationService.get("CSV_PBL").getRegionName()).isEqualTo("East Java, Indonesia");
+	}
+
+	@Test
+	public void testImportNdjsonUpdatesAndRestoresExistingLocations() throws Exception {
+
+		Location location = new Location("Old Name", "Region", "Indonesia", "ID");
+		location.setCode("NDJ_UPD");
+		location.setEnabled(true);
+
+		locationService.add(location);
+
+		Location trashed = new Location("Trashed", "Region", "Indonesia", "ID");
+		trashed.setCode("NDJ_TRS");
+		trashed.setEnabled(true);
+
+		locationService.add(trashed);
+		locationService.delete("NDJ_TRS");
+
+		// Loaded into the second-level cache, which the import has to invalidate.
+		mockMvc.perform(get(END_POINT_PATH + "/NDJ_UPD")).andExpect(jsonPath("$.city_name").value("Old Name"));
+
+		String ndjson = """
+				{"code":"NDJ_UPD","city_name":"New Name","region_name":"Region","country_name":"Indonesia","country_code":"ID","enabled":true}
+				not json
+				{"code":"NDJ_TRS","city_name":"Restored","region_name":"Region","country_name":"Indonesia","country_code":"ID","enabled":true}
+				{"code":"NDJ_NEW","city_name":"Created","country_name":"Indonesia","country_code":"ID","enabled":true}
+				""";
+
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(3))
+				.andExpect(jsonPath("$.failed").value(1)).andExpect(jsonPath("$.errors[0].line").value(2));
+
+		mockMvc.perform(get(END_POINT_PATH + "/NDJ_UPD")).andExpect(jsonPath("$.city_name").value("New Name"));
+		mockMvc.perform(get(END_POINT_PATH + "/NDJ_TRS")).andExpect(jsonPath("$.city_name").value("Restored"));
+		mockMvc.perform(get(END_POINT_PATH + "/NDJ_NEW")).andExpect(status().isOk());
+	}
+
+	@Test
+	public void testImportCsvWithUnknownColumnShouldReturn400BadRequest() throws Exception {
+
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("text/csv").content("code,altitude\nABC,1.0\n"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testExportCsvRoundTripsThroughImport() throws Exception {
+
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("text/csv")
+				.content("code,city_name,country_name,country_code,enabled\nEXP_PKU,Pekanbaru,Indonesia,ID,true\n"))
+				.andExpect(jsonPath("$.imported").value(1));
+
+		MvcResult started = mockMvc.perform(get(END_POINT_PATH).accept("text/csv")).andReturn();
+
+		String csv = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString();
+
+		assertThat(csv).startsWith("code,city_name,region_name,country_name,country_code,latitude,longitude,enabled\n")
+				.contains("EXP_PKU,Pekanbaru,,Indonesia,ID,,,true\n");
+
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("text/csv").content(csv))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.failed").value(0));
+	}
+}
@@ -0,0 +1,145 @@
+package com.weatherapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.weatherapi.weatherforecast.RecentWrites;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherCache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class LocationIndexTests {
+
+	private LocationRepository locationRepository;
+
+	private LocationIndex locationIndex;
+
+	private LocationService locationService;
+
+	@BeforeEach
+	public void setUp() {
+
+		locationRepository = Mockito.mock(LocationRepository.class);
+		locationIndex = new LocationIndex(locationRepository);
+		RecentWrites recentWrites = new RecentWrites(Duration.ZERO);
+
+		locationService = new LocationService(locationRepository,
+				new RealtimeWeatherCache(100, Duration.ofMinutes(5), recentWrites), locationIndex,
+				Mockito.mock(LocationJdbcRepository.class), recentWrites);
+	}
+
+	@Test
+	public void testLoadIndexesUntrashedLocations() {
+
+		Mockito.when(locationRepository.findUntrashed())
+				.thenReturn(List.of(location("NYC_USA", "New York City", "US"), location("JKT_ID", "Jakarta", "ID")));
+
+		locationIndex.load();
+
+		assertThat(locationIndex.size()).isEqualTo(2);
+		assertThat(locationIndex.findCode("us", "new york city ")).isEqualTo("NYC_USA");
+		assertThat(locationIndex.findCode("ID", "Bandung")).isNull();
+	}
+
+	@Test
+	public void testIndexFollowsAddUpdateAndDelete() throws LocationNotFoundException {
+
+		Location jakarta = location("JKT_ID", "Jakarta", "ID");
+
+		Mockito.when(locationRepository.save(Mockito.any(Location.class))).then(invocation -> invocation.getArgument(0));
+
+		locationService.add(jakarta);
+
+		assertThat(locationIndex.findCode("ID", "Jakarta")).isEqualTo("JKT_ID");
+
+		Mockito.when(locationRepository.findByCode("JKT_ID")).thenReturn(jakarta);
+
+		locationService.update(location("JKT_ID", "Jakarta Pusat", "ID"));
+
+		assertThat(locationIndex.findCode("ID", "Jakarta")).isNull();
+		assertThat(locationIndex.findCode("ID", "Jakarta Pusat")).isEqualTo("JKT_ID");
+
+		locationService.delete("JKT_ID");
+
+		assertThat(locationIndex.findCode("ID", "Jakarta Pusat")).isNull();
+		assertThat(locationIndex.size()).isZero();
+	}
+
+	@Test
+	public void testRemoveHandsKeyToRemainingLocation() {
+
+		locationIndex.put(location("JKT1", "Jakarta", "ID"));
+		locationIndex.put(location("JKT2", "Jakarta", "ID"));
+
+		assertThat(locationIndex.findCode("ID", "Jakarta")).isEqualTo("JKT1");
+
+		locationIndex.remove("JKT1");
+
+		assertThat(locationIndex.findCode("ID", "Jakarta")).isEqualTo("JKT2");
+	}
+
+	@Test
+	public void testFindNearestCodeWithinDistance() {
+
+		locationIndex.put(location("JKT_ID", "Jakarta", "ID", -6.2, 106.82));
+		locationIndex.put(location("BGR_ID", "Bogor", "ID", -6.6, 106.8));
+		locationIndex.put(location("BDG_ID", "Bandung", "ID", null, null));
+
+		assertThat(locationIndex.findNearestCode(-6.25, 106.85, 100)).isEqualTo("JKT_ID");
+		assertThat(locationIndex.findNearestCode(-6.55, 106.75, 100)).isEqualTo("BGR_ID");
+		assertThat(locationIndex.findNearestCode(-6.9, 107.6, 50)).isNull();
+
+		locationIndex.remove("JKT_ID");
+
+		assertThat(locationIndex.findNearestCode(-6.25, 106.85, 100)).isEqualTo("BGR_ID");
+	}
+
+	@Test
+	public void testFindNearestCodeAcrossAntimeridian() {
+
+		locationIndex.put(location("SUV_FJ", "Suva", "FJ", -18.14, 178.44));
+
+		assertThat(locationIndex.findNearestCode(-18.2, -179.9, 300)).isEqualTo("SUV_FJ");
+		assertThat(locationIndex.findNearestCode(-18.2, -179.9, 100)).isNull();
+	}
+
+	@Test
+	public void testUpdateMovesCoordinates() throws LocationNotFoundException {
+
+		Location jakarta = location("JKT_ID", "Jakarta", "ID", -6.2, 106.82);
+
+		Mockito.when(locationRepository.save(Mockito.any(Location.class))).then(invocation -> invocation.getArgument(0));
+
+		locationService.add(jakarta);
+
+		Mockito.when(locationRepository.findByCode("JKT_ID")).thenReturn(jakarta);
+
+		locationService.update(location("JKT_ID", "Jakarta", "ID", 40.71, -74.0));
+
+		assertThat(locationIndex.findNearestCode(-6.2, 106.82, 100)).isNull();
+		assertThat(locationIndex.findNearestCode(40.7, -74.01, 100)).isEqualTo("JKT_ID");
+	}
+
+	private static Location location(String code, String cityName, String countryCode, Double latitude,
+			Double longitude) {
+
+		Location location = location(code, cityName, countryCode);
+		location.setLatitude(latitude);
+		location.setLongitude(longitude);
+
+		return location;
+	}
+
+	private static Location location(String code, String cityName, String countryCode) {
+
+		Location location = new Location(cityName, null, "Country", countryCode);
+		location.setCode(code);
+
+		return location;
+	}
+}
@@ -0,0 +1,141 @@
+package com.weatherapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.weatherapi.weatherforecast.QueryCountConfiguration;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.realtime.RealtimeWeatherService;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * Counts the SQL statements behind location reads, against an in-memory H2
+ * database in MySQL mode, with a realtime weather row for every location. The
+ * second-level cache starts empty for every test.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect" })
+@AutoConfigureMockMvc
+@Import(QueryCountConfiguration.class)
+public class LocationStatementCountTests {
+
+	private static final int LOCATION_COUNT = 5;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	LocationService locationService;
+
+	@Autowired
+	LocationRepository locationRepository;
+
+	@Autowired
+	RealtimeWeatherService realtimeWeatherService;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+
+		for (int i = 0; i < LOCATION_COUNT; i++) {
+
+			String code = "LST_" + i;
+
+			if (locationRepository.findByCode(code) == null) {
+
+				Location location = new Location("City " + i, "Region", "Indonesia", "ID");
+				location.setCode(code);
+				location.setEnabled(true);
+
+				locationService.add(location);
+			}
+
+			RealtimeWeather realtimeWeather = new RealtimeWeather();
+			realtimeWeather.setTemperature(30);
+			realtimeWeather.setHumidity(70);
+			realtimeWeather.setPrecipitation(20);
+			realtimeWeather.setWindSpeed(10);
+			realtimeWeather.setStatus("Sunny");
+
+			realtimeWeatherService.update(code, realtimeWeather);
+		}
+
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+		QueryCountHolder.clear();
+	}
+
+	@Test
+	public void testListLocationsIssuesOneQuery() throws Exception {
+
+		mockMvc.perform(get("/v1/locations").param("cursor", "LST_").param("size", "100")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(LOCATION_COUNT));
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGetLocationIssuesOneQuery() throws Exception {
+
+		mockMvc.perform(get("/v1/locations/LST_0")).andExpect(status().isOk());
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGetRealtimeWeatherFetchesLocationInOneQuery() throws Exception {
+
+		mockMvc.perform(get("/v1/realtime/LST_1")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.location").value("City 1, Region, Indonesia"));
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGetLocationIsServedFromSecondLevelCache() throws Exception {
+
+		mockMvc.perform(get("/v1/locations/LST_2")).andExpect(status().isOk());
+
+		QueryCountHolder.clear();
+
+		mockMvc.perform(get("/v1/locations/LST_2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.city_name").value("City 2"));
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isZero();
+	}
+
+	@Test
+	public void testTrashByCodeInvalidatesCachedLocation() throws Exception {
+
+		Location location = new Location("Trashed City", "Region", "Indonesia", "ID");
+		location.setCode("LST_TRASH");
+		location.setEnabled(true);
+
+		locationService.add(location);
+
+		assertThat(locationService.get("LST_TRASH")).isNotNull();
+
+		locationRepository.trashByCode("LST_TRASH");
+
+		assertThat(locationService.get("LST_TRASH")).isNull();
+		assertThat(locationRepository.findUntrashed()).extracting(Location::getCode).doesNotContain("LST_TRASH");
+	}
+}
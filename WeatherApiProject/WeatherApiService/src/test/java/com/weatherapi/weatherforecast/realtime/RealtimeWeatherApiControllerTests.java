@@ -1,30 +1,44 @@
 package com.weatherapi.weatherforecast.realtime;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.ApiOutcomes;
 import com.weatherapi.weatherforecast.GeolocationException;
 import com.weatherapi.weatherforecast.GeolocationService;
 import com.weatherapi.weatherforecast.common.Location;
 import com.weatherapi.weatherforecast.common.RealtimeWeather;
 import com.weatherapi.weatherforecast.location.LocationNotFoundException;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(RealtimeWeatherApiController.class)
+@Import({ RealtimeWeatherResponseCache.class, ApiOutcomes.class })
 public class RealtimeWeatherApiControllerTests {
 
 	private static final String END_POINT_PATH = "/v1/realtime";
@@ -41,6 +55,12 @@ public class RealtimeWeatherApiControllerTests {
 	@MockBean
 	GeolocationService geolocationService;
 
+	@Autowired
+	RealtimeWeatherResponseCache responseCache;
+
+	@Autowired
+	ApiOutcomes apiOutcomes;
+
 	@Test
 	public void testGetShouldReturnStatus400BadRequest() throws Exception {
 
@@ -49,6 +69,24 @@ public class RealtimeWeatherApiControllerTests {
 		mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isBadRequest()).andDo(print());
 	}
 
+	@Test
+	public void testGetShouldCountGeolocationFailure() throws Exception {
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		apiOutcomes.bindTo(registry);
+
+		// The context, and with it the counts, are shared with the other tests.
+		double before = registry.get("weatherapi.outcomes").tag("outcome", "geolocation_failure").functionCounter()
+				.count();
+
+		Mockito.when(geolocationService.getLocation(Mockito.anyString())).thenThrow(GeolocationException.class);
+
+		mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isBadRequest()).andDo(print());
+
+		assertThat(registry.get("weatherapi.outcomes").tag("outcome", "geolocation_failure").functionCounter().count())
+				.isEqualTo(before + 1);
+	}
+
 	@Test
 	public void testGetShouldReturnStatus404NotFound() throws Exception {
 
@@ -96,6 +134,35 @@ public class RealtimeWeatherApiControllerTests {
 				.andExpect(jsonPath("$.location", is(expectedLocation))).andDo(print());
 	}
 
+	@Test
+	public void testGetByIPAddressShouldBeValidatedByETagOnly() throws Exception {
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode("JKT");
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date(1700000000000L));
+
+		Mockito.when(geolocationService.getLocation(Mockito.anyString())).thenReturn(location);
+		Mockito.when(realtimeWeatherService.getByLocation(location)).thenReturn(realtimeWeather);
+
+		MvcResult mvcResult = mockMvc.perform(get(END_POINT_PATH).header("X-FORWARED-FOR", "203.189.88.161"))
+				.andExpect(status().isOk()).andExpect(header().exists("ETag"))
+				.andExpect(header().doesNotExist("Last-Modified"))
+				.andExpect(header().string("Cache-Control", "private"))
+				.andExpect(header().string("Vary", "X-FORWARED-FOR")).andReturn();
+
+		// A client whose address moved must not get a 304 from the date alone.
+		mockMvc.perform(get(END_POINT_PATH).header("If-Modified-Since", "Thu, 01 Jan 2099 00:00:00 GMT"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get(END_POINT_PATH).header("If-None-Match", mvcResult.getResponse().getHeader("ETag")))
+				.andExpect(status().isNotModified()).andExpect(header().string("Cache-Control", "private"));
+	}
+
 	@Test
 	public void testGetByLocationCodeShouldReturnStatus404NotFound() throws Exception {
 
@@ -144,6 +211,113 @@ public class RealtimeWeatherApiControllerTests {
 				.andExpect(jsonPath("$.location", is(expectedLocation))).andDo(print());
 	}
 
+	@Test
+	public void testGetByLocationCodeShouldServeCachedBytesUntilUpdated() throws Exception {
+
+		String locationCode = "CCH";
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode(locationCode);
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date(1700000000000L));
+
+		Mockito.when(realtimeWeatherService.getByLocationCode(locationCode)).thenReturn(realtimeWeather);
+
+		String requestURI = END_POINT_PATH + "/" + locationCode;
+
+		long hits = responseCache.stats().hitCount();
+
+		String first = mockMvc.perform(get(requestURI)).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString();
+
+		mockMvc.perform(get(requestURI)).andExpect(status().isOk())
+				.andExpect(content().contentType("application/json")).andExpect(content().string(first))
+				.andExpect(header().doesNotExist("Content-Encoding"));
+
+		assertThat(responseCache.stats().hitCount()).isEqualTo(hits + 1);
+
+		realtimeWeather.setStatus("Rainy");
+		realtimeWeather.setLastUpdatedDtm(new Date(1700000060000L));
+
+		mockMvc.perform(get(requestURI)).andExpect(status().isOk()).andExpect(jsonPath("$.status", is("Rainy")))
+				.andDo(print());
+	}
+
+	@Test
+	public void testGetByCoordinatesShouldReturnStatus200OK() throws Exception {
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode("JKT");
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date());
+
+		Mockito.when(realtimeWeatherService.getByCoordinates(-6.2, 106.82)).thenReturn(realtimeWeather);
+
+		mockMvc.perform(get(END_POINT_PATH).param("lat", "-6.2").param("lon", "106.82")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.location", is("Jakarta, Jakarta, Indonesia"))).andDo(print());
+	}
+
+	@Test
+	public void testGetByCoordinatesShouldReturnStatus400And404() throws Exception {
+
+		mockMvc.perform(get(END_POINT_PATH).param("lat", "91").param("lon", "106.82"))
+				.andExpect(status().isBadRequest()).andDo(print());
+
+		mockMvc.perform(get(END_POINT_PATH).param("lat", "NaN").param("lon", "106.82"))
+				.andExpect(status().isBadRequest()).andDo(print());
+
+		Mockito.when(realtimeWeatherService.getByCoordinates(0, 0)).thenThrow(LocationNotFoundException.class);
+
+		mockMvc.perform(get(END_POINT_PATH).param("lat", "0").param("lon", "0")).andExpect(status().isNotFound())
+				.andDo(print());
+
+		Mockito.verify(geolocationService, Mockito.never()).getLocation(Mockito.anyString());
+	}
+
+	@Test
+	public void testGetByLocationCodeShouldReturnStatus304NotModified() throws Exception {
+
+		String locationCode = "JKT";
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode(locationCode);
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date(1700000000000L));
+
+		Mockito.when(realtimeWeatherService.getByLocationCode(locationCode)).thenReturn(realtimeWeather);
+
+		String requestURI = END_POINT_PATH + "/" + locationCode;
+
+		MvcResult mvcResult = mockMvc.perform(get(requestURI)).andExpect(status().isOk())
+				.andExpect(header().exists("ETag")).andExpect(header().exists("Last-Modified")).andReturn();
+
+		String eTag = mvcResult.getResponse().getHeader("ETag");
+		String lastModified = mvcResult.getResponse().getHeader("Last-Modified");
+
+		mockMvc.perform(get(requestURI).header("If-None-Match", eTag)).andExpect(status().isNotModified())
+				.andExpect(content().string("")).andDo(print());
+
+		mockMvc.perform(get(requestURI).header("If-Modified-Since", lastModified))
+				.andExpect(status().isNotModified()).andDo(print());
+
+		realtimeWeather.setLastUpdatedDtm(new Date(1700000060000L));
+
+		mockMvc.perform(get(requestURI).header("If-None-Match", eTag)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.status", is("Sunny"))).andDo(print());
+	}
+
 	@Test
 	public void testUpdateShouldReturn400BadRequest() throws Exception {
 
@@ -228,4 +402,115 @@ public class RealtimeWeatherApiControllerTests {
 		mockMvc.perform(put(requestURI).contentType("application/json").content(bodyContent)).andExpect(status().isOk())
 				.andExpect(jsonPath("$.location", is(expectedLocation))).andDo(print());
 	}
+
+	@Test
+	public void testBatchUpdateShouldReturnPerItemResults() throws Exception {
+
+		Mockito.when(realtimeWeatherService.updateAll(Mockito.anyList())).thenReturn(Set.of("JKT"));
+
+		String bodyContent = """
+				[
+				  {"location_code": "JKT", "temperature": 30, "humidity": 70, "precipitation": 20, "wind_speed": 10, "status": "Sunny"},
+				  {"location_code": "NOT-FOUND", "temperature": 20, "humidity": 60, "precipitation": 10, "wind_speed": 5, "status": "Cloudy"},
+				  {"location_code": "BDG", "temperature": 100, "humidity": 60, "precipitation": 10, "wind_speed": 5, "status": "Cloudy"}
+				]
+				""";
+
+		mockMvc.perform(put(END_POINT_PATH).contentType("application/json").content(bodyContent))
+				.andExpect(status().isOk()).andExpect(jsonPath("$[0].status", is(200)))
+				.andExpect(jsonPath("$[1].status", is(404))).andExpect(jsonPath("$[2].status", is(400)))
+				.andExpect(jsonPath("$[2].location_code", is("BDG"))).andDo(print());
+
+		Mockito.verify(realtimeWeatherService).updateAll(Mockito.argThat(realtimeWeathers -> realtimeWeathers.size() == 2
+				&& "JKT".equals(realtimeWeathers.get(0).getLocationCode())
+				&& realtimeWeathers.get(0).getTemperature() == 30));
+	}
+
+	@Test
+	public void testBatchUpdateShouldAcceptNDJSON() throws Exception {
+
+		Mockito.when(realtimeWeatherService.updateAll(Mockito.anyList())).thenReturn(Set.of("JKT", "BDG"));
+
+		String bodyContent = """
+				{"location_code": "JKT", "temperature": 30, "humidity": 70, "precipitation": 20, "wind_speed": 10, "status": "Sunny"}
+				{"location_code": "BDG", "temperature": 20, "humidity": 60, "precipitation": 10, "wind_speed": 5, "status": "Cloudy"}
+				""";
+
+		mockMvc.perform(put(END_POINT_PATH).contentType("application/x-ndjson").content(bodyContent))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.length()", is(2)))
+				.andExpect(jsonPath("$[1].status", is(200))).andDo(print());
+	}
+
+	@Test
+	public void testBatchUpdateShouldReturn400ForNullItems() throws Exception {
+
+		Mockito.when(realtimeWeatherService.updateAll(Mockito.anyList())).thenReturn(Set.of("JKT"));
+
+		String bodyContent = """
+				[null, {"location_code": "JKT", "temperature": 30, "humidity": 70, "precipitation": 20, "wind_speed": 10, "status": "Sunny"}]
+				""";
+
+		mockMvc.perform(put(END_POINT_PATH).contentType("application/json").content(bodyContent))
+				.andExpect(status().isOk()).andExpect(jsonPath("$[0].status", is(400)))
+				.andExpect(jsonPath("$[0].errors[0]", is("Reading must be a JSON object")))
+				.andExpect(jsonPath("$[1].status", is(200))).andDo(print());
+
+		String ndjsonContent = """
+				{"location_code": "JKT", "temperature": 30, "humidity": 70, "precipitation": 20, "wind_speed": 10, "status": "Sunny"}
+				null
+				""";
+
+		mockMvc.perform(put(END_POINT_PATH).contentType("application/x-ndjson").content(ndjsonContent))
+				.andExpect(status().isOk()).andExpect(jsonPath("$[0].status", is(200)))
+				.andExpect(jsonPath("$[1].status", is(400))).andDo(print());
+
+		Mockito.verify(realtimeWeatherService, Mockito.times(2))
+				.updateAll(Mockito.argThat(realtimeWeathers -> realtimeWeathers.size() == 1));
+	}
+
+	@Test
+	public void testBatchUpdateShouldReturn400BadRequestForMalformedBody() throws Exception {
+
+		mockMvc.perform(put(END_POINT_PATH).contentType("application/json").content("[{\"location_code\": "))
+				.andExpect(status().isBadRequest()).andDo(print());
+	}
+
+	@Test
+	public void testLookupShouldMapUnknownCodesToNull() throws Exception {
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode("JKT");
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocationCode("JKT");
+		realtimeWeather.setTemperature(30);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date());
+		realtimeWeather.setLocation(location);
+
+		Mockito.when(realtimeWeatherService.getByLocationCodes(Set.of("JKT", "XYZ")))
+				.thenReturn(Map.of("JKT", realtimeWeather));
+
+		mockMvc.perform(post(END_POINT_PATH + "/lookup").contentType("application/json")
+				.content("[\"JKT\", \"XYZ\", \" JKT \"]")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", is(2))).andExpect(jsonPath("$.JKT.temperature", is(30)))
+				.andExpect(jsonPath("$.JKT.location", is("Jakarta, Jakarta, Indonesia")))
+				.andExpect(jsonPath("$.XYZ", nullValue())).andDo(print());
+	}
+
+	@Test
+	public void testLookupShouldReturn400BadRequestAboveMaxCodes() throws Exception {
+
+		String codes = IntStream.range(0, 501).mapToObj(i -> "\"C" + i + "\"")
+				.collect(Collectors.joining(",", "[", "]"));
+
+		mockMvc.perform(post(END_POINT_PATH + "/lookup").contentType("application/json").content(codes))
+				.andExpect(status().isBadRequest()).andDo(print());
+
+		mockMvc.perform(post(END_POINT_PATH + "/lookup").contentType("application/json").content("[]"))
+				.andExpect(status().isBadRequest()).andDo(print());
+
+		Mockito.verifyNoInteractions(realtimeWeatherService);
+	}
 }
@@ -0,0 +1,147 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.weatherapi.weatherforecast.RecentWrites;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RealtimeWeatherCacheTests {
+
+	private RealtimeWeatherCache cache;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+
+		cache = new RealtimeWeatherCache(100, Duration.ofMinutes(5), new RecentWrites(Duration.ZERO));
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	public void tearDown() {
+
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentReadsShareOneLoad() throws Exception {
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+
+		Future<RealtimeWeather> first = executor.submit(() -> cache.get("JKT", code -> {
+
+			loads.incrementAndGet();
+			loading.countDown();
+			await(release);
+
+			return realtimeWeather;
+		}));
+
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Future<RealtimeWeather> second = executor.submit(() -> cache.get("JKT", code -> {
+
+			loads.incrementAndGet();
+
+			return new RealtimeWeather();
+		}));
+
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(realtimeWeather);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(realtimeWeather);
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(cache.stats().hitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testEvictDuringLoadDoesNotCacheStaleValue() throws Exception {
+
+		RealtimeWeather stale = new RealtimeWeather();
+		RealtimeWeather fresh = new RealtimeWeather();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<RealtimeWeather> read = executor.submit(() -> cache.get("JKT", code -> {
+
+			loading.countDown();
+			await(release);
+
+			return stale;
+		}));
+
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		cache.evict("JKT");
+		release.countDown();
+
+		assertThat(read.get(5, TimeUnit.SECONDS)).isSameAs(stale);
+		assertThat(cache.get("JKT", code -> fresh)).isSameAs(fresh);
+	}
+
+	@Test
+	public void testGetAllLoadsOnlyUncachedCodesInOneCall() {
+
+		RealtimeWeather jakarta = new RealtimeWeather();
+		RealtimeWeather bandung = new RealtimeWeather();
+		RealtimeWeather surabaya = new RealtimeWeather();
+
+		cache.get("JKT", code -> jakarta);
+
+		AtomicInteger loads = new AtomicInteger();
+
+		Map<String, RealtimeWeather> realtimeWeathers = cache.getAll(List.of("JKT", "BDG", "SBY", "XYZ"), codes -> {
+
+			loads.incrementAndGet();
+
+			assertThat(codes).containsExactlyInAnyOrder("BDG", "SBY", "XYZ");
+
+			return Map.of("BDG", bandung, "SBY", surabaya);
+		});
+
+		assertThat(realtimeWeathers).containsOnly(Map.entry("JKT", jakarta), Map.entry("BDG", bandung),
+				Map.entry("SBY", surabaya));
+		assertThat(loads.get()).isEqualTo(1);
+
+		// The missing code was not cached, so it is the only one loaded again.
+		cache.getAll(List.of("JKT", "BDG", "XYZ"), codes -> {
+
+			assertThat(codes).isEqualTo(Set.of("XYZ"));
+
+			return Map.of();
+		});
+
+		assertThat(cache.stats().hitCount()).isEqualTo(3);
+	}
+
+	private static void await(CountDownLatch latch) {
+
+		try {
+
+			latch.await(5, TimeUnit.SECONDS);
+
+		} catch (InterruptedException ex) {
+
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+public class RealtimeWeatherMapperTests {
+
+	@Test
+	public void testToDTOMatchesModelMapper() {
+
+		ModelMapper modelMapper = new ModelMapper();
+		modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+		Location withRegion = new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID");
+		Location withoutRegion = new Location("Singapore", null, "Singapore", "SG");
+
+		for (Location location : new Location[] { withRegion, withoutRegion, null }) {
+
+			RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+			if (location != null) {
+
+				realtimeWeather.setLocation(location);
+			}
+
+			realtimeWeather.setTemperature(30);
+			realtimeWeather.setHumidity(70);
+			realtimeWeather.setPrecipitation(20);
+			realtimeWeather.setWindSpeed(10);
+			realtimeWeather.setStatus("Sunny");
+			realtimeWeather.setLastUpdatedDtm(new Date());
+
+			RealtimeWeatherDTO expected = modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+
+			assertThat(RealtimeWeatherMapper.toDTO(realtimeWeather)).usingRecursiveComparison().isEqualTo(expected);
+		}
+	}
+}
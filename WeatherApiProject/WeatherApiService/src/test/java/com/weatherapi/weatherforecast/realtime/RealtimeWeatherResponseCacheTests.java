@@ -0,0 +1,94 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RealtimeWeatherResponseCacheTests {
+
+	private RealtimeWeatherResponseCache cache;
+
+	private AtomicInteger mappings;
+
+	@BeforeEach
+	public void setUp() {
+
+		cache = new RealtimeWeatherResponseCache(new ObjectMapper(), 100, Duration.ofMinutes(5));
+		mappings = new AtomicInteger();
+	}
+
+	@Test
+	public void testSameETagReusesSerializedBytes() {
+
+		byte[] first = cache.get("JKT", "\"JKT-1\"", () -> dto("Sunny")).getJson();
+		byte[] second = cache.get("JKT", "\"JKT-1\"", () -> dto("Rainy")).getJson();
+
+		assertThat(second).isSameAs(first);
+		assertThat(new String(first, StandardCharsets.UTF_8)).contains("\"status\":\"Sunny\"");
+		assertThat(mappings).hasValue(1);
+		assertThat(cache.stats().hitCount()).isEqualTo(1);
+		assertThat(cache.stats().missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testNewETagSerializesAgain() {
+
+		cache.get("JKT", "\"JKT-1\"", () -> dto("Sunny"));
+
+		byte[] json = cache.get("JKT", "\"JKT-2\"", () -> dto("Rainy")).getJson();
+
+		assertThat(new String(json, StandardCharsets.UTF_8)).contains("\"status\":\"Rainy\"");
+		assertThat(mappings).hasValue(2);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testPutPrimesAndUpdateEventEvicts() {
+
+		cache.put("JKT", "\"JKT-1\"", dto("Sunny"));
+
+		cache.get("JKT", "\"JKT-1\"", () -> dto("Rainy"));
+
+		assertThat(mappings).hasValue(1);
+
+		cache.onRealtimeWeatherUpdated(new RealtimeWeatherUpdatedEvent(Set.of("JKT")));
+
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void testGzipDecompressesToJson() throws Exception {
+
+		RealtimeWeatherResponseCache.Response response = cache.get("JKT", "\"JKT-1\"", () -> dto("Sunny"));
+
+		byte[] gzip = response.getGzip();
+
+		assertThat(response.getGzip()).isSameAs(gzip);
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+
+			assertThat(in.readAllBytes()).isEqualTo(response.getJson());
+		}
+	}
+
+	private RealtimeWeatherDTO dto(String status) {
+
+		mappings.incrementAndGet();
+
+		RealtimeWeatherDTO dto = new RealtimeWeatherDTO();
+		dto.setLocation("Jakarta, DKI Jakarta, Indonesia");
+		dto.setStatus(status);
+
+		return dto;
+	}
+}
@@ -0,0 +1,262 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.RecentWrites;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationIndex;
+import com.weatherapi.weatherforecast.location.LocationNotFoundException;
+import com.weatherapi.weatherforecast.location.LocationRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+public class RealtimeWeatherServiceTests {
+
+	private RealtimeWeatherRepository realtimeWeatherRepository;
+
+	private LocationRepository locationRepository;
+
+	private RealtimeWeatherCache realtimeWeatherCache;
+
+	private LocationIndex locationIndex;
+
+	private RealtimeWeatherJdbcRepository realtimeWeatherJdbcRepository;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private RealtimeWeatherService service;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+
+		realtimeWeatherRepository = Mockito.mock(RealtimeWeatherRepository.class);
+		locationRepository = Mockito.mock(LocationRepository.class);
+		realtimeWeatherCache = new RealtimeWeatherCache(100, Duration.ofMinutes(5), new RecentWrites(Duration.ZERO));
+		locationIndex = new LocationIndex(locationRepository);
+		realtimeWeatherJdbcRepository = Mockito.mock(RealtimeWeatherJdbcRepository.class);
+		eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+
+		service = service(writeBehindBuffer(false));
+	}
+
+	@Test
+	public void testGetByLocationCodeServedFromCache() throws Exception {
+
+		String locationCode = "JKT";
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(locationCode);
+
+		Mockito.when(realtimeWeatherRepository.findByLocationCode(locationCode)).thenReturn(realtimeWeather);
+
+		service.getByLocationCode(locationCode);
+		RealtimeWeather cached = service.getByLocationCode(locationCode);
+
+		assertThat(cached).isSameAs(realtimeWeather);
+		Mockito.verify(realtimeWeatherRepository, Mockito.times(1)).findByLocationCode(locationCode);
+		assertThat(realtimeWeatherCache.stats().hitCount()).isEqualTo(1);
+		assertThat(realtimeWeatherCache.stats().missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testGetByLocationCodeNotFoundIsNotCached() {
+
+		String locationCode = "NOT-FOUND";
+
+		assertThatThrownBy(() -> service.getByLocationCode(locationCode))
+				.isInstanceOf(LocationNotFoundException.class);
+		assertThatThrownBy(() -> service.getByLocationCode(locationCode))
+				.isInstanceOf(LocationNotFoundException.class);
+
+		Mockito.verify(realtimeWeatherRepository, Mockito.times(2)).findByLocationCode(locationCode);
+		assertThat(realtimeWeatherCache.size()).isZero();
+	}
+
+	@Test
+	public void testGetByLocationResolvedThroughIndex() throws Exception {
+
+		Location location = new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID");
+		location.setCode("JKT");
+		locationIndex.put(location);
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode("JKT");
+
+		Mockito.when(realtimeWeatherRepository.findByLocationCode("JKT")).thenReturn(realtimeWeather);
+
+		RealtimeWeather found = service.getByLocation(new Location(" JAKARTA", null, "Indonesia", "id"));
+
+		assertThat(found).isSameAs(realtimeWeather);
+		Mockito.verify(realtimeWeatherRepository, Mockito.never()).findByCountryCodeAndCity(Mockito.any(),
+				Mockito.any());
+
+		assertThatThrownBy(() -> service.getByLocation(new Location("Bandung", null, "Indonesia", "ID")))
+				.isInstanceOf(LocationNotFoundException.class);
+	}
+
+	@Test
+	public void testGetByLocationPrefersNearestLocation() throws Exception {
+
+		Location jakarta = new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID");
+		jakarta.setCode("JKT");
+		jakarta.setLatitude(-6.2);
+		jakarta.setLongitude(106.82);
+		locationIndex.put(jakarta);
+
+		Location depok = new Location("Depok", "West Java", "Indonesia", "ID");
+		depok.setCode("DPK");
+		locationIndex.put(depok);
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode("JKT");
+
+		Mockito.when(realtimeWeatherRepository.findByLocationCode("JKT")).thenReturn(realtimeWeather);
+
+		Location client = new Location("Depok", null, "Indonesia", "ID");
+		client.setLatitude(-6.4);
+		client.setLongitude(106.82);
+
+		assertThat(service.getByLocation(client)).isSameAs(realtimeWeather);
+		assertThat(service.getByCoordinates(-6.3, 106.9)).isSameAs(realtimeWeather);
+
+		assertThatThrownBy(() -> service.getByCoordinates(40.71, -74.0)).isInstanceOf(LocationNotFoundException.class);
+	}
+
+	@Test
+	public void testUpdateEvictsCachedEntry() throws Exception {
+
+		String locationCode = "JKT";
+
+		Location location = new Location();
+		location.setCode(locationCode);
+
+		RealtimeWeather existing = new RealtimeWeather();
+		existing.setLocation(location);
+		location.setRealtimeWeather(existing);
+
+		RealtimeWeather updated = new RealtimeWeather();
+
+		Mockito.when(realtimeWeatherRepository.findByLocationCode(locationCode)).thenReturn(existing);
+		Mockito.when(locationRepository.findByCode(locationCode)).thenReturn(location);
+		Mockito.when(realtimeWeatherJdbcRepository.upsertIfLocationUntrashed(updated)).thenReturn(true);
+
+		service.getByLocationCode(locationCode);
+		service.update(locationCode, updated);
+		service.getByLocationCode(locationCode);
+
+		Mockito.verify(realtimeWeatherRepository, Mockito.times(2)).findByLocationCode(locationCode);
+	}
+
+	@Test
+	public void testUpdateUsesIndexedLocationAndOneUpsert() throws Exception {
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode("JKT");
+
+		locationIndex.put(location);
+
+		RealtimeWeather updated = realtimeWeather("JKT");
+
+		Mockito.when(realtimeWeatherJdbcRepository.upsertIfLocationUntrashed(updated)).thenReturn(true);
+
+		assertThat(service.update("JKT", updated).getLocation()).hasToString("Jakarta, Jakarta, Indonesia");
+
+		Mockito.verifyNoInteractions(locationRepository, realtimeWeatherRepository);
+	}
+
+	@Test
+	public void testUpdateUnknownLocationThrows() {
+
+		Mockito.when(realtimeWeatherJdbcRepository.upsertIfLocationUntrashed(Mockito.any())).thenReturn(false);
+
+		assertThatThrownBy(() -> service.update("ABC_XYZ", realtimeWeather("ABC_XYZ")))
+				.isInstanceOf(LocationNotFoundException.class);
+	}
+
+	@Test
+	public void testUpdateAllLooksUpLocationsOncePerChunk() throws Exception {
+
+		RealtimeWeather jakarta = realtimeWeather("JKT");
+		RealtimeWeather bandung = realtimeWeather("BDG");
+		RealtimeWeather unknown = realtimeWeather("NOT-FOUND");
+
+		Mockito.when(locationRepository.findUntrashedCodes(Mockito.anyCollection())).thenReturn(List.of("JKT"),
+				List.of("BDG"));
+		Mockito.when(realtimeWeatherRepository.findByLocationCode("JKT")).thenReturn(jakarta);
+
+		service.getByLocationCode("JKT");
+
+		Set<String> updatedCodes = service.updateAll(List.of(jakarta, unknown, bandung));
+
+		assertThat(updatedCodes).containsExactlyInAnyOrder("JKT", "BDG");
+		assertThat(jakarta.getLastUpdatedDtm()).isNotNull();
+		assertThat(realtimeWeatherCache.size()).isZero();
+
+		Mockito.verify(locationRepository, Mockito.times(2)).findUntrashedCodes(Mockito.anyCollection());
+		Mockito.verify(realtimeWeatherJdbcRepository).upsertAll(List.of(jakarta));
+		Mockito.verify(realtimeWeatherJdbcRepository).upsertAll(List.of(bandung));
+
+		ArgumentCaptor<RealtimeWeatherUpdatedEvent> event = ArgumentCaptor.forClass(RealtimeWeatherUpdatedEvent.class);
+
+		Mockito.verify(eventPublisher).publishEvent(event.capture());
+
+		assertThat(event.getValue().getLocationCodes()).containsExactlyInAnyOrder("JKT", "BDG");
+	}
+
+	@Test
+	public void testUpdateWithWriteBehindIsServedBeforeFlush() throws Exception {
+
+		RealtimeWeatherWriteBehindBuffer writeBehindBuffer = writeBehindBuffer(true);
+
+		service = service(writeBehindBuffer);
+
+		Location location = new Location("Jakarta", "Jakarta", "Indonesia", "ID");
+		location.setCode("JKT");
+
+		Mockito.when(locationRepository.findByCode("JKT")).thenReturn(location);
+
+		service.update("JKT", realtimeWeather("JKT"));
+		RealtimeWeather latest = service.update("JKT", realtimeWeather("JKT"));
+
+		assertThat(service.getByLocationCode("JKT")).isSameAs(latest);
+		Mockito.verifyNoInteractions(realtimeWeatherRepository, realtimeWeatherJdbcRepository);
+
+		assertThat(writeBehindBuffer.flush()).isEqualTo(1);
+
+		Mockito.verify(realtimeWeatherJdbcRepository).upsertAll(List.of(latest));
+		assertThat(writeBehindBuffer.size()).isZero();
+
+		writeBehindBuffer.shutdown();
+	}
+
+	private RealtimeWeatherService service(RealtimeWeatherWriteBehindBuffer writeBehindBuffer) {
+
+		return new RealtimeWeatherService(realtimeWeatherRepository, locationRepository, realtimeWeatherCache,
+				locationIndex, realtimeWeatherJdbcRepository, writeBehindBuffer, eventPublisher, 2, 100);
+	}
+
+	private RealtimeWeatherWriteBehindBuffer writeBehindBuffer(boolean enabled) throws Exception {
+
+		return new RealtimeWeatherWriteBehindBuffer(realtimeWeatherJdbcRepository, realtimeWeatherCache, locationIndex,
+				new ObjectMapper(), enabled, Duration.ofHours(1), 500, false, "", false);
+	}
+
+	private static RealtimeWeather realtimeWeather(String locationCode) {
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(locationCode);
+
+		return realtimeWeather;
+	}
+}
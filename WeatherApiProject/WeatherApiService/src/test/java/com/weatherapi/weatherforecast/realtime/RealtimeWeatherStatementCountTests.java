@@ -0,0 +1,127 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import com.weatherapi.weatherforecast.QueryCountConfiguration;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationNotFoundException;
+import com.weatherapi.weatherforecast.location.LocationRepository;
+import com.weatherapi.weatherforecast.location.LocationService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * Counts the SQL statements behind realtime weather updates, against an
+ * in-memory H2 database in MySQL mode.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect" })
+@Import(QueryCountConfiguration.class)
+public class RealtimeWeatherStatementCountTests {
+
+	@Autowired
+	RealtimeWeatherService realtimeWeatherService;
+
+	@Autowired
+	LocationService locationService;
+
+	@Autowired
+	LocationRepository locationRepository;
+
+	@BeforeEach
+	public void setUp() {
+
+		if (locationRepository.findByCode("JKT_ID") == null) {
+
+			locationService.add(location("JKT_ID", "Jakarta"));
+		}
+
+		QueryCountHolder.clear();
+	}
+
+	@Test
+	public void testUpdateIssuesOneStatement() throws Exception {
+
+		RealtimeWeather inserted = realtimeWeatherService.update("JKT_ID", realtimeWeather(30));
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+		assertThat(inserted.getLocation()).hasToString("Jakarta, Region, Indonesia");
+
+		QueryCountHolder.clear();
+
+		realtimeWeatherService.update("JKT_ID", realtimeWeather(31));
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+		assertThat(realtimeWeatherService.getByLocationCode("JKT_ID").getTemperature()).isEqualTo(31);
+	}
+
+	@Test
+	public void testUpdateTrashedLocationIssuesOneStatement() throws Exception {
+
+		locationService.add(location("BDG_ID", "Bandung"));
+		locationService.delete("BDG_ID");
+
+		QueryCountHolder.clear();
+
+		assertThatThrownBy(() -> realtimeWeatherService.update("BDG_ID", realtimeWeather(25)))
+				.isInstanceOf(LocationNotFoundException.class);
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	public void testLookupIssuesOneStatementForUncachedCodes() throws Exception {
+
+		for (String code : new String[] { "LKP_A", "LKP_B", "LKP_C" }) {
+
+			locationService.add(location(code, "Lookup City"));
+			realtimeWeatherService.update(code, realtimeWeather(20));
+		}
+
+		realtimeWeatherService.getByLocationCode("LKP_A");
+
+		QueryCountHolder.clear();
+
+		Map<String, RealtimeWeather> realtimeWeathers = realtimeWeatherService
+				.getByLocationCodes(List.of("LKP_A", "LKP_B", "LKP_C", "LKP_NONE"));
+
+		assertThat(realtimeWeathers).containsOnlyKeys("LKP_A", "LKP_B", "LKP_C");
+		assertThat(realtimeWeathers.get("LKP_C").getLocation()).hasToString("Lookup City, Region, Indonesia");
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1);
+	}
+
+	private static Location location(String code, String cityName) {
+
+		Location location = new Location(cityName, "Region", "Indonesia", "ID");
+
+		location.setCode(code);
+		location.setEnabled(true);
+
+		return location;
+	}
+
+	private static RealtimeWeather realtimeWeather(int temperature) {
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setTemperature(temperature);
+		realtimeWeather.setHumidity(70);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(10);
+		realtimeWeather.setStatus("Sunny");
+
+		return realtimeWeather;
+	}
+}
@@ -0,0 +1,246 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+/**
+ * Streams from a running server: the broadcaster writes with non-blocking
+ * servlet I/O, which the mock servlet response does not support. Subscribers
+ * outlive the test's client, so every test gets a fresh broadcaster.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:stream;MODE=MySQL;DB_CLOSE_DELAY=-1", "spring.datasource.username=sa",
+		"spring.datasource.password=", "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"weatherapi.realtime.stream.threads=1", "weatherapi.realtime.stream.slow-client-threshold=500ms" })
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class RealtimeWeatherStreamControllerTests {
+
+	private static final String END_POINT_PATH = "/v1/realtime/stream";
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	RealtimeWeatherBroadcaster broadcaster;
+
+	@MockBean
+	RealtimeWeatherService realtimeWeatherService;
+
+	private HttpClient httpClient = HttpClient.newHttpClient();
+
+	private StringBuffer content = new StringBuffer();
+
+	private Stream<String> lines;
+
+	@AfterEach
+	public void tearDown() {
+
+		if (lines != null) {
+
+			lines.close();
+		}
+	}
+
+	@Test
+	public void testStreamShouldReturn400BadRequestWithoutCodes() throws Exception {
+
+		assertThat(get("%20").statusCode()).isEqualTo(400);
+	}
+
+	@Test
+	public void testStreamShouldReturn404NotFound() throws Exception {
+
+		Mockito.when(realtimeWeatherService.getByLocationCodes(Set.of("JKT", "ABC_XYZ")))
+				.thenReturn(Map.of("JKT", realtimeWeather("JKT", 1000)));
+
+		assertThat(get("JKT,ABC_XYZ").statusCode()).isEqualTo(404);
+		assertThat(broadcaster.getSubscriberCount()).isZero();
+	}
+
+	@Test
+	public void testStreamShouldSendCurrentThenUpdatedReading() throws Exception {
+
+		RealtimeWeather current = realtimeWeather("JKT", 1000);
+		RealtimeWeather updated = realtimeWeather("JKT", 2000);
+
+		Mockito.when(realtimeWeatherService.getByLocationCodes(Set.of("JKT"))).thenReturn(Map.of("JKT", current),
+				Map.of("JKT", updated));
+
+		HttpResponse<Stream<String>> response = stream("JKT");
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+				contentType -> assertThat(contentType).startsWith("text/event-stream"));
+
+		awaitContent("id:JKT-1000");
+
+		broadcaster.onRealtimeWeatherUpdated(new RealtimeWeatherUpdatedEvent(Set.of("JKT", "BDG")));
+
+		awaitContent("id:JKT-2000");
+
+		assertThat(content.toString()).contains("event:realtime").contains("\"temperature\":30");
+		assertThat(broadcaster.getSubscriberCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testStreamShouldSendSnapshotLargerThanOneFlush() throws Exception {
+
+		Map<String, RealtimeWeather> realtimeWeathers = new HashMap<>();
+
+		for (int index = 0; index < 40; index++) {
+
+			realtimeWeathers.put("LOC" + index, realtimeWeather("LOC" + index, 1000));
+		}
+
+		Mockito.when(realtimeWeatherService.getByLocationCodes(realtimeWeathers.keySet())).thenReturn(realtimeWeathers);
+
+		stream(String.join(",", realtimeWeathers.keySet()));
+
+		for (String locationCode : realtimeWeathers.keySet()) {
+
+			awaitContent("id:" + locationCode + "-1000");
+		}
+	}
+
+	// One stream thread, so a write that blocked on the stalled client would stop
+	// every other subscriber.
+	@Test
+	public void testStalledClientDoesNotHoldUpOthersAndIsDisconnected() throws Exception {
+
+		AtomicLong version = new AtomicLong();
+
+		Mockito.when(realtimeWeatherService.getByLocationCodes(Set.of("BIG"))).thenAnswer(invocation -> {
+
+			RealtimeWeather big = realtimeWeather("BIG", version.incrementAndGet());
+			big.setStatus("x".repeat(256 * 1024));
+
+			return Map.of("BIG", big);
+		});
+
+		Mockito.when(realtimeWeatherService.getByLocationCodes(Set.of("JKT")))
+				.thenReturn(Map.of("JKT", realtimeWeather("JKT", 1000)), Map.of("JKT", realtimeWeather("JKT", 2000)));
+
+		try (Socket stalled = new Socket("localhost", port)) {
+
+			// Requests the stream and never reads it.
+			OutputStream request = stalled.getOutputStream();
+			request.write(("GET " + END_POINT_PATH + "?codes=BIG HTTP/1.1\r\nHost: localhost\r\n"
+					+ "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			request.flush();
+
+			await(() -> broadcaster.getSubscriberCount() == 1);
+
+			stream("JKT");
+
+			awaitContent("id:JKT-1000");
+
+			for (int index = 0; index < 100; index++) {
+
+				broadcaster.onRealtimeWeatherUpdated(new RealtimeWeatherUpdatedEvent(Set.of("BIG")));
+
+				Thread.sleep(10);
+			}
+
+			broadcaster.onRealtimeWeatherUpdated(new RealtimeWeatherUpdatedEvent(Set.of("JKT")));
+
+			awaitContent("id:JKT-2000");
+
+			await(() -> broadcaster.getSubscriberCount() == 1);
+		}
+	}
+
+	private HttpResponse<String> get(String codes) throws IOException, InterruptedException {
+
+		return httpClient.send(request(codes), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<Stream<String>> stream(String codes) throws IOException, InterruptedException {
+
+		HttpResponse<Stream<String>> response = httpClient.send(request(codes), HttpResponse.BodyHandlers.ofLines());
+
+		lines = response.body();
+
+		Thread reader = new Thread(() -> {
+
+			try {
+
+				lines.forEach(line -> content.append(line).append('\n'));
+
+			} catch (RuntimeException ex) {
+
+				// Closed by the test.
+			}
+		});
+
+		reader.setDaemon(true);
+		reader.start();
+
+		return response;
+	}
+
+	private HttpRequest request(String codes) {
+
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + END_POINT_PATH + "?codes=" + codes))
+				.header("Accept", "text/event-stream").build();
+	}
+
+	private void awaitContent(String expected) throws InterruptedException {
+
+		await(() -> content.indexOf(expected) >= 0);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + 5000;
+
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+
+			Thread.sleep(10);
+		}
+
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+	private static RealtimeWeather realtimeWeather(String locationCode, long lastUpdated) {
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocationCode(locationCode);
+		realtimeWeather.setTemperature(30);
+		realtimeWeather.setHumidity(70);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(10);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date(lastUpdated));
+
+		return realtimeWeather;
+	}
+}
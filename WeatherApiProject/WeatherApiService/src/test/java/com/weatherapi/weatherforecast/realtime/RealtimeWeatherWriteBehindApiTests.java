@@ -0,0 +1,70 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.location.LocationService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Writes realtime weather through the write-behind buffer, against an in-memory
+ * H2 database in MySQL mode. The flusher never runs on its own during a test.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:writebehind;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"weatherapi.realtime.write-behind.enabled=true", "weatherapi.realtime.write-behind.flush-interval=1h" })
+@AutoConfigureMockMvc
+public class RealtimeWeatherWriteBehindApiTests {
+
+	private static final String END_POINT_PATH = "/v1/realtime";
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	LocationService locationService;
+
+	@Autowired
+	RealtimeWeatherWriteBehindBuffer writeBehindBuffer;
+
+	@Test
+	public void testBatchUpdateIsServedWithItsLocationBeforeAndAfterFlush() throws Exception {
+
+		Location location = new Location("Jakarta", "DKI Jakarta", "Indonesia", "ID");
+		location.setCode("WB_JKT");
+		location.setEnabled(true);
+
+		locationService.add(location);
+
+		String bodyContent = """
+				[{"location_code": "WB_JKT", "temperature": 30, "humidity": 70, "precipitation": 20,
+				"wind_speed": 10, "status": "Sunny"}]
+				""";
+
+		mockMvc.perform(put(END_POINT_PATH).contentType("application/json").content(bodyContent))
+				.andExpect(status().isOk()).andExpect(jsonPath("$[0].status", is(200)));
+
+		String buffered = mockMvc.perform(get(END_POINT_PATH + "/WB_JKT")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.location", is("Jakarta, DKI Jakarta, Indonesia")))
+				.andExpect(jsonPath("$.temperature", is(30))).andReturn().getResponse().getHeader("ETag");
+
+		assertThat(writeBehindBuffer.flush()).isEqualTo(1);
+
+		String flushed = mockMvc.perform(get(END_POINT_PATH + "/WB_JKT")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.location", is("Jakarta, DKI Jakarta, Indonesia"))).andReturn().getResponse()
+				.getHeader("ETag");
+
+		assertThat(flushed).isEqualTo(buffered);
+	}
+}
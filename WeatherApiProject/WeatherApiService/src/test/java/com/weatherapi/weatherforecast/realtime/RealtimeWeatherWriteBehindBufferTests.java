@@ -0,0 +1,156 @@
+package com.weatherapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.weatherforecast.RecentWrites;
+import com.weatherapi.weatherforecast.common.Location;
+import com.weatherapi.weatherforecast.common.RealtimeWeather;
+import com.weatherapi.weatherforecast.location.LocationIndex;
+import com.weatherapi.weatherforecast.location.LocationRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+public class RealtimeWeatherWriteBehindBufferTests {
+
+	@TempDir
+	Path directory;
+
+	private RealtimeWeatherJdbcRepository realtimeWeatherJdbcRepository;
+
+	private RealtimeWeatherCache realtimeWeatherCache;
+
+	private LocationIndex locationIndex;
+
+	@BeforeEach
+	public void setUp() {
+
+		realtimeWeatherJdbcRepository = Mockito.mock(RealtimeWeatherJdbcRepository.class);
+		realtimeWeatherCache = new RealtimeWeatherCache(100, Duration.ofMinutes(5), new RecentWrites(Duration.ZERO));
+		locationIndex = new LocationIndex(Mockito.mock(LocationRepository.class));
+
+		locationIndex.put(location("JKT", "Jakarta"));
+		locationIndex.put(location("BDG", "Bandung"));
+	}
+
+	@Test
+	public void testFlushWritesLatestReadingPerLocation() throws Exception {
+
+		RealtimeWeatherWriteBehindBuffer buffer = buffer("");
+
+		RealtimeWeather first = realtimeWeather("JKT", 20);
+		RealtimeWeather latest = realtimeWeather("JKT", 25);
+		RealtimeWeather bandung = realtimeWeather("BDG", 22);
+
+		buffer.accept(List.of(first, bandung));
+		buffer.accept(List.of(latest));
+
+		assertThat(buffer.get("JKT")).isSameAs(latest);
+		assertThat(buffer.flush()).isEqualTo(2);
+
+		Mockito.verify(realtimeWeatherJdbcRepository).upsertAll(Mockito.argThat(
+				realtimeWeathers -> realtimeWeathers.size() == 2 && realtimeWeathers.stream().anyMatch(r -> r == latest)));
+		assertThat(buffer.size()).isZero();
+
+		buffer.shutdown();
+	}
+
+	@Test
+	public void testFailedFlushKeepsReadingsPending() throws Exception {
+
+		RealtimeWeatherWriteBehindBuffer buffer = buffer("");
+
+		Mockito.doThrow(new DataAccessResourceFailureException("Connection refused")).when(realtimeWeatherJdbcRepository)
+				.upsertAll(Mockito.anyList());
+
+		buffer.accept(List.of(realtimeWeather("JKT", 25)));
+
+		assertThatThrownBy(buffer::flush).isInstanceOf(DataAccessResourceFailureException.class);
+		assertThat(buffer.size()).isEqualTo(1);
+
+		buffer.shutdown();
+	}
+
+	@Test
+	public void testJournalIsReplayedAfterRestart() throws Exception {
+
+		String journal = directory.resolve("realtime.journal").toString();
+
+		RealtimeWeatherWriteBehindBuffer buffer = buffer(journal);
+
+		buffer.accept(List.of(realtimeWeather("JKT", 20), realtimeWeather("BDG", 22)));
+		buffer.accept(List.of(realtimeWeather("JKT", 25)));
+
+		// Simulates a crash: no flush, no drain.
+		RealtimeWeatherWriteBehindBuffer recovered = buffer(journal);
+
+		assertThat(recovered.size()).isEqualTo(2);
+		assertThat(recovered.get("JKT").getTemperature()).isEqualTo(25);
+		assertThat(recovered.get("JKT").getLastUpdatedDtm()).isEqualTo(new Date(1000));
+		assertThat(recovered.get("JKT").getLocation().getCityName()).isEqualTo("Jakarta");
+
+		recovered.flush();
+
+		assertThat(buffer(journal).size()).isZero();
+
+		buffer.shutdown();
+		recovered.shutdown();
+	}
+
+	@Test
+	public void testJournalReplayDropsTrashedLocations() throws Exception {
+
+		String journal = directory.resolve("realtime.journal").toString();
+
+		RealtimeWeatherWriteBehindBuffer buffer = buffer(journal);
+
+		buffer.accept(List.of(realtimeWeather("JKT", 20), realtimeWeather("BDG", 22)));
+
+		locationIndex.remove("BDG");
+
+		RealtimeWeatherWriteBehindBuffer recovered = buffer(journal);
+
+		assertThat(recovered.size()).isEqualTo(1);
+		assertThat(recovered.get("BDG")).isNull();
+		assertThat(recovered.get("JKT").getLocation()).isNotNull();
+
+		buffer.shutdown();
+		recovered.shutdown();
+	}
+
+	private RealtimeWeatherWriteBehindBuffer buffer(String journal) throws Exception {
+
+		return new RealtimeWeatherWriteBehindBuffer(realtimeWeatherJdbcRepository, realtimeWeatherCache, locationIndex,
+				new ObjectMapper(), true, Duration.ofHours(1), 500, false, journal, false);
+	}
+
+	private static Location location(String code, String cityName) {
+
+		Location location = new Location(cityName, "Java", "Indonesia", "ID");
+		location.setCode(code);
+
+		return location;
+	}
+
+	private static RealtimeWeather realtimeWeather(String locationCode, int temperature) {
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+
+		realtimeWeather.setLocationCode(locationCode);
+		realtimeWeather.setTemperature(temperature);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdatedDtm(new Date(1000));
+
+		return realtimeWeather;
+	}
+}
@@ -0,0 +1,110 @@
+// k6 load test comparing the servlet realtime API (WeatherApiService) with its
+// reactive counterpart (WeatherApiReactive) at 10k concurrent clients.
+//
+// Start both against the same database:
+//
+//   java -jar WeatherApiService/target/WeatherApiService-1.0.0-exec.jar \
+//       --weatherapi.bulkhead.realtime.max-concurrent=10000 --server.tomcat.max-connections=10000
+//   java -jar WeatherApiReactive/target/WeatherApiReactive-1.0.0.jar
+//
+// The bulkhead is raised so the servlet API queues on its thread and connection
+// pools instead of shedding load. Then run the same scenario against each, one
+// at a time, with the open file limit raised (ulimit -n 65536) on both sides:
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e LOCATION_CODES=JKT_ID,NYC_USA loadtest/realtime-reactive.js
+//   k6 run -e BASE_URL=http://localhost:8081 -e LOCATION_CODES=JKT_ID,NYC_USA loadtest/realtime-reactive.js
+//
+// Besides the request latencies, the summary reports the server's live JVM
+// threads and database connections in use, polled from /actuator/metrics:
+// hikaricp.connections.* for the servlet API and r2dbc.pool.* for the reactive one.
+//
+// No results have been recorded yet: the comparison is unverified until both
+// runs are made on the target hardware and their summaries are kept here.
+// The reactive API caches readings for weatherapi.realtime.cache.expire-after-write
+// (1s), so it may serve a reading up to that long after the servlet API has
+// acknowledged a newer one; keep that in mind when comparing the two.
+
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const LOCATION_CODES = (__ENV.LOCATION_CODES || 'JKT_ID').split(',');
+const IP_ADDRESSES = (__ENV.IP_ADDRESSES || '203.189.88.161,108.30.178.78').split(',');
+const VUS = parseInt(__ENV.VUS || '10000');
+const DURATION = __ENV.DURATION || '2m';
+
+const liveThreads = new Trend('server_threads_live');
+const connectionsInUse = new Trend('server_db_connections_in_use');
+const connectionsPending = new Trend('server_db_connections_pending');
+
+export const options = {
+	scenarios: {
+		byLocationCode: {
+			executor: 'constant-vus',
+			exec: 'byLocationCode',
+			vus: VUS / 2,
+			duration: DURATION,
+		},
+		byIPAddress: {
+			executor: 'constant-vus',
+			exec: 'byIPAddress',
+			vus: VUS / 2,
+			duration: DURATION,
+		},
+		serverMetrics: {
+			executor: 'constant-vus',
+			exec: 'serverMetrics',
+			vus: 1,
+			duration: DURATION,
+		},
+	},
+	summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function byLocationCode() {
+
+	const code = LOCATION_CODES[Math.floor(Math.random() * LOCATION_CODES.length)];
+
+	const response = http.get(`${BASE_URL}/v1/realtime/${code}`, { tags: { endpoint: 'byLocationCode' } });
+
+	check(response, { 'status is 200': (r) => r.status === 200 });
+}
+
+export function byIPAddress() {
+
+	const ip = IP_ADDRESSES[Math.floor(Math.random() * IP_ADDRESSES.length)];
+
+	const response = http.get(`${BASE_URL}/v1/realtime`, {
+		headers: { 'X-FORWARED-FOR': ip },
+		tags: { endpoint: 'byIPAddress' },
+	});
+
+	check(response, { 'status is 200': (r) => r.status === 200 });
+}
+
+export function serverMetrics() {
+
+	record(liveThreads, 'jvm.threads.live');
+	record(connectionsInUse, 'hikaricp.connections.active') || record(connectionsInUse, 'r2dbc.pool.acquired');
+	record(connectionsPending, 'hikaricp.connections.pending') || record(connectionsPending, 'r2dbc.pool.pending');
+
+	sleep(1);
+}
+
+// Adds the metric's current value to the trend; false when the server does not have it.
+function record(trend, name) {
+
+	const response = http.get(`${BASE_URL}/actuator/metrics/${name}`, { tags: { endpoint: 'metrics' } });
+
+	if (response.status !== 200) {
+
+		return false;
+	}
+
+	const value = response.json().measurements.find((m) => m.statistic === 'VALUE');
+
+	trend.add(value ? value.value : 0);
+
+	return true;
+}